@@ -77,6 +77,8 @@ public class WarwickPlus {
 
         }
         System.out.println("\nFinished Loading...");
+        //from here on the star sets are adjusted as ratings and credits change instead of being recomputed
+        credits.getStarAnalytics(ratings, true);
 
         setHomescreen(frame.getContentPane());
         
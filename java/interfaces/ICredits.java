@@ -31,6 +31,7 @@ public interface ICredits{
     public int[] findSuperStarCastID(Ratings ratings);
 
     public int[] findDistance(int castIDA, int castIDB);
+    public int[] findDistance(int castIDA, int castIDB, int maxDepth);
 
     public int size();
     public String toString();
@@ -0,0 +1,9 @@
+package interfaces;
+
+public interface ICreditsListener {
+    //called once a film's credits have been added, with the distinct cast IDs stored for it
+    public void filmAdded(int filmID, int[] castIDs);
+
+    //called once a film's credits have been removed, with the distinct cast IDs that were stored for it
+    public void filmRemoved(int filmID, int[] castIDs);
+}
@@ -7,11 +7,16 @@ import stores.Genre;
 
 public interface IMovies {
     public boolean add(int id, String title, String originalTitle, String overview, String tagline, String status, Genre[] genres, Calendar release, long budget, long revenue, String[] languages, String originalLanguage, double runtime, String homepage, boolean adult, boolean video, String poster);
+    public boolean add(int id, String title, String originalTitle, String overview, String tagline, String status, Genre[] genres, int releaseDay, long budget, long revenue, String[] languages, String originalLanguage, double runtime, String homepage, boolean adult, boolean video, String poster);
     public boolean remove(int id);
 
     public int[] getAllIDsReleasedInRange(Calendar start, Calendar end);
     public int[] getAllIDsReleasedInRangeAndBudget(Calendar start, Calendar end, long lowerBudget, long upperBudget);
 
+    // Epoch day versions of the range queries; both bounds are exclusive.
+    public int[] getAllIDsReleasedInRange(int startDay, int endDay);
+    public int[] getAllIDsReleasedInRangeAndBudget(int startDay, int endDay, long lowerBudget, long upperBudget);
+
     public String getTitle(int id);
     public String getOriginalTitle(int id);
     public String getOverview(int id);
@@ -19,6 +24,7 @@ public interface IMovies {
     public String getStatus(int id);
     public Genre[] getGenres(int id);
     public Calendar getRelease(int id);
+    public int getReleaseDay(int id);
     public long getBudget(int id);
     public long getRevenue(int id);
     public String[] getLanguages(int id);
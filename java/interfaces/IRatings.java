@@ -3,15 +3,22 @@ package interfaces;
 import java.util.Calendar;
 public interface IRatings {
     public boolean add(int userID, int movieID, float rating, Calendar timestamp);
+    public boolean add(int userID, int movieID, float rating, long epochSecond);
 
     public boolean remove(int userID, int movieID);
 
     public boolean set(int userID, int movieID, float rating, Calendar timestamp);
+    public boolean set(int userID, int movieID, float rating, long epochSecond);
 
     public float[] getRatingsBetween(Calendar start, Calendar end);
     public float[] getMovieRatingsBetween(int movieID, Calendar start, Calendar end);
     public float[] getUserRatingsBetween(int userID, Calendar start, Calendar end);
 
+    // Epoch second versions of the range queries; both bounds are exclusive.
+    public float[] getRatingsBetween(long startSecond, long endSecond);
+    public float[] getMovieRatingsBetween(int movieID, long startSecond, long endSecond);
+    public float[] getUserRatingsBetween(int userID, long startSecond, long endSecond);
+
     public float[] getMovieRatings(int movieID);
     public float[] getUserRatings(int userID);
     public float getMovieAverageRatings(int movieID);
@@ -0,0 +1,6 @@
+package interfaces;
+
+public interface IRatingsListener {
+    //called when a movie's average rating moves from below the listener's threshold to at or above it, or back
+    public void averageCrossed(int movieID, boolean above);
+}
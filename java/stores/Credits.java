@@ -3,67 +3,372 @@ package stores;
 import structures.*;
 
 import interfaces.ICredits;
+import interfaces.ICreditsListener;
 
 public class Credits implements ICredits {
 
     //------------------------------nested credit class
     public class Credit {
 
-        private HashMap<Integer, Cast> cast_hashmap;
-        private HashMap<Integer, Crew> crew_hashmap;
+        private int[] cast_ids;
+        private Cast[] cast;
+        private int[] crew_ids;
+        private Crew[] crew;
+
+        //every (crew id, department, job) of the film as it was added, repeats of a crew id included, since one person
+        //can hold several roles on a film; these are what the department and job indexes are posted from
+        private int[] role_crew_ids;
+        private String[] role_departments;
+        private String[] role_jobs;
 
         /*
-         * Using a hashmap rather than an array for the storing of the crew and the cast members aquires a similar 
-         * amount of memory, however is much more time efficient in implementation, since searches in a hashmap are 
-         * completed in O(1) rather than O(n) in an array.
+         * The cast and crew are each kept as one array sorted by id, alongside a plain array of the ids themselves. A
+         * film has at most a few hundred credits, so a binary search over the ids is as quick in practice as a hash
+         * lookup, and two flat arrays per side cost a fraction of a hashmap's buckets, lists and boxed keys. A repeated
+         * id keeps its first member, as the hashmap did.
          */
         public Credit(Cast[] castarray, Crew[] crewarray) {
-
-            this.cast_hashmap = new HashMap<>(castarray.length);
+            int[] ids = new int[castarray.length];
             for (int i = 0; i < castarray.length; i++) {
-                cast_hashmap.put(castarray[i].getID(), castarray[i]);
+                ids[i] = castarray[i].getID();
+            }
+            int[] order = sortedUniqueOrder(ids);
+            this.cast_ids = new int[order.length];
+            this.cast = new Cast[order.length];
+            for (int i = 0; i < order.length; i++) {
+                cast_ids[i] = ids[order[i]];
+                cast[i] = castarray[order[i]];
+            }
+
+            ids = new int[crewarray.length];
+            for (int i = 0; i < crewarray.length; i++) {
+                ids[i] = crewarray[i].getID();
+            }
+            order = sortedUniqueOrder(ids);
+            this.crew_ids = new int[order.length];
+            this.crew = new Crew[order.length];
+            for (int i = 0; i < order.length; i++) {
+                crew_ids[i] = ids[order[i]];
+                crew[i] = crewarray[order[i]];
             }
 
-            this.crew_hashmap = new HashMap<>(crewarray.length);
+            this.role_crew_ids = new int[crewarray.length];
+            this.role_departments = new String[crewarray.length];
+            this.role_jobs = new String[crewarray.length];
             for (int i = 0; i < crewarray.length; i++) {
-                crew_hashmap.put(crewarray[i].getID(), crewarray[i]);
+                role_crew_ids[i] = crewarray[i].getID();
+                role_departments[i] = crewarray[i].getDepartment();
+                role_jobs[i] = crewarray[i].getJob();
             }
         }
 
-        public HashMap<Integer, Cast> getCastHashmap() {
-            return cast_hashmap;
+        //the cast and crew ordered by id, copied so the credit cannot be changed by the caller
+        public Cast[] getCast() {
+            return cast.clone();
+        }
+
+        public Crew[] getCrew() {
+            return crew.clone();
+        }
+
+        public int sizeOfCast() {
+            return cast.length;
         }
 
-        public HashMap<Integer, Crew> getCrewHashmap() {
-            return crew_hashmap;
+        public int sizeOfCrew() {
+            return crew.length;
         }
 
         public boolean containsCrew(int id) {
-            return getCrewHashmap().containsKey(id);
+            return binarySearch(crew_ids, id) >= 0;
         }
 
         public boolean containsCast(int id) {
-            return getCastHashmap().containsKey(id);
+            return binarySearch(cast_ids, id) >= 0;
         }
 
         public Crew getCrew(int id) {
-            return getCrewHashmap().get(id);
+            int i = binarySearch(crew_ids, id);
+            return i < 0 ? null : crew[i];
         }
 
         public Cast getCast(int id) {
-            return getCastHashmap().get(id);
+            int i = binarySearch(cast_ids, id);
+            return i < 0 ? null : cast[i];
         }
 
     }
 
     //------------------------------end of nested credit class
+
+    //------------------------------nested person class
+    public class Person {
+
+        private String name;
+        private String profilePath;
+        private IntList films;
+
+        /*
+         * One entry per distinct cast or crew id. The name and profile path are taken from the first credit added for
+         * the person, and films holds the ascending ids of every film they are credited on, so the entry doubles as the
+         * person's postings list and is dropped when that list empties.
+         */
+        public Person(String name, String profilePath) {
+            this.name = name;
+            this.profilePath = profilePath;
+            this.films = new IntList();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getProfilePath() {
+            return profilePath;
+        }
+
+        public int getFilmCount() {
+            return films.size();
+        }
+
+        public int[] getFilmIDs() {
+            return films.toArray();
+        }
+
+    }
+
+    //------------------------------end of nested person class
     
     //credits hashmap to store each credit object along with the movie id for that credit as a key
-    HashMap<Integer, Credit> credit_hashmap;
+    IntObjectHashMap<Credit> credit_hashmap;
+
+    //person tables for every distinct cast and crew id, each holding the films they appear in, kept in step by add and remove
+    IntObjectHashMap<Person> cast_people;
+    IntObjectHashMap<Person> crew_people;
+
+    //trigram indexes over the name of every person in the two tables, for name searches
+    TrigramIndex cast_name_index;
+    TrigramIndex crew_name_index;
 
+    //the crew's films split by the department and by the job they held on each film
+    HashMap<String, IntObjectHashMap<IntList>> department_index;
+    HashMap<String, IntObjectHashMap<IntList>> job_index;
 
+    //co-star graph over every cast id, with each edge weighted by the number of films the two cast members share; null
+    //when the credits were created without it
+    WeightedIntGraph co_star_graph;
+
+    //the largest cast and film ids ever added, which size the visited bitmaps of a search through the films
+    int max_cast_id;
+    int max_film_id;
+
+    //connected components of the co-star graph; merged on add, but a remove can split a component, so it only marks
+    //them stale and they are rebuilt on the next query
+    DisjointSet cast_components;
+    boolean components_stale;
+
+    //read-only snapshot of the co-star graph for breadth first searches, taken on the first distance query and thrown
+    //away whenever the credits change
+    CsrGraph cast_graph;
+
+    //landmark distance oracle over the same snapshot, built on the first bulk distance query and dropped with it
+    LandmarkIndex landmark_index;
+    private static final int LANDMARK_COUNT = 16;
+
+    //star and superstar sets for the ratings last asked about
+    StarAnalytics star_analytics;
+
+    //bumped by every successful add and remove, so cached results computed from the credits can tell they are stale
+    int mod_count;
+
+    //listeners told about every film added or removed
+    CustomList<ICreditsListener> listeners;
+
+
+    /*
+     * The co-star graph holds an edge for every pair of cast members in every film, which grows with the square of the
+     * cast sizes. Without it, the read-only graph that distance queries search is built from the films the first time
+     * it is needed, holding each co-star pair once rather than once per shared film.
+     */
+    public Credits(boolean maintainCastGraph) {
+        credit_hashmap = new IntObjectHashMap<>(9999);
+        cast_people = new IntObjectHashMap<>(9999);
+        crew_people = new IntObjectHashMap<>(9999);
+        cast_name_index = new TrigramIndex(9999);
+        crew_name_index = new TrigramIndex(9999);
+        department_index = new HashMap<>();
+        job_index = new HashMap<>();
+        co_star_graph = maintainCastGraph ? new WeightedIntGraph(9999) : null;
+        cast_components = new DisjointSet(9999);
+        components_stale = false;
+        max_cast_id = 0;
+        max_film_id = 0;
+        mod_count = 0;
+        listeners = new CustomList<>();
+    }
+
+    //the co-star graph is opt-in, so loading the full credits does not pay for it by default
     public Credits() {
-        credit_hashmap = new HashMap<>(9999);
+        this(false);
+    }
+
+    //records filmid against the person with this id, creating their entry and indexing their name the first time the id
+    //is seen
+    private void addPerson(IntObjectHashMap<Person> people, TrigramIndex names, int id, String name, String profilePath,
+            int filmid) {
+        Person person = people.get(id);
+        if (person == null) {
+            person = new Person(name, profilePath);
+            people.put(id, person);
+            names.add(id, name);
+        }
+        person.films.addSorted(filmid);
+    }
+
+    private static void removePerson(IntObjectHashMap<Person> people, TrigramIndex names, int id, int filmid) {
+        Person person = people.get(id);
+        if (person == null) {
+            return;
+        }
+        person.films.removeSorted(filmid);
+        if (person.films.isEmpty()) {
+            people.remove(id);
+            names.remove(id);
+        }
+    }
+
+    //everyone in one film is connected, so joining each cast member to the first is enough
+    private void joinComponents(int[] castids) {
+        for (int castid : castids) {
+            cast_components.add(castid);
+            cast_components.union(castids[0], castid);
+        }
+    }
+
+    public int getModCount() {
+        return mod_count;
+    }
+
+    public void addListener(ICreditsListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ICreditsListener listener) {
+        listeners.remove(listener);
+    }
+
+    //the ascending ids of the cast of a film, or an empty array if the film has no credits; the array is the credit's
+    //own, so it must not be changed
+    int[] getCastIDs(int filmID) {
+        Credit credit = credit_hashmap.get(filmID);
+        return credit == null ? new int[0] : credit.cast_ids;
+    }
+
+    //returns the position in ids (ascending) of id, or -1 if it is not there
+    private static int binarySearch(int[] ids, int id) {
+        int low = 0;
+        int high = ids.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (ids[mid] < id) {
+                low = mid + 1;
+            } else if (ids[mid] > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Returns the positions of ids in ascending order of id, dropping every repeat of an id but its first. The positions
+     * are put in order with a stable bottom-up merge sort, so the first of any repeated id is also the first in its run.
+     */
+    private static int[] sortedUniqueOrder(int[] ids) {
+        int n = ids.length;
+        int[] src = new int[n];
+        int[] dst = new int[n];
+        for (int i = 0; i < n; i++) {
+            src[i] = i;
+        }
+        for (int width = 1; width < n; width *= 2) {
+            for (int low = 0; low < n; low += 2 * width) {
+                int mid = Math.min(low + width, n);
+                int high = Math.min(low + 2 * width, n);
+                int i = low;
+                int j = mid;
+                for (int k = low; k < high; k++) {
+                    if (i < mid && (j >= high || ids[src[i]] <= ids[src[j]])) {
+                        dst[k] = src[i++];
+                    } else {
+                        dst[k] = src[j++];
+                    }
+                }
+            }
+            int[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+
+        int unique = 0;
+        for (int k = 0; k < n; k++) {
+            if (unique == 0 || ids[src[k]] != ids[src[unique - 1]]) {
+                src[unique] = src[k];
+                unique++;
+            }
+        }
+        int[] answer = new int[unique];
+        System.arraycopy(src, 0, answer, 0, unique);
+        return answer;
+    }
+
+    //adds filmid to the postings list of key, creating the list the first time key is seen
+    private static void post(IntObjectHashMap<IntList> index, int key, int filmid) {
+        IntList films = index.get(key);
+        if (films == null) {
+            films = new IntList();
+            index.put(key, films);
+        }
+        films.addSorted(filmid);
+    }
+
+    //takes filmid out of the postings list of key, dropping the list once it is empty
+    private static void unpost(IntObjectHashMap<IntList> index, int key, int filmid) {
+        IntList films = index.get(key);
+        if (films == null) {
+            return;
+        }
+        films.removeSorted(filmid);
+        if (films.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static void postFacet(HashMap<String, IntObjectHashMap<IntList>> facets, String facet, int crewid, int filmid) {
+        if (facet == null) {
+            return;
+        }
+        IntObjectHashMap<IntList> index = facets.get(facet);
+        if (index == null) {
+            index = new IntObjectHashMap<>();
+            facets.put(facet, index);
+        }
+        post(index, crewid, filmid);
+    }
+
+    private static void unpostFacet(HashMap<String, IntObjectHashMap<IntList>> facets, String facet, int crewid, int filmid) {
+        if (facet == null) {
+            return;
+        }
+        IntObjectHashMap<IntList> index = facets.get(facet);
+        if (index == null) {
+            return;
+        }
+        unpost(index, crewid, filmid);
+        if (index.isEmpty()) {
+            facets.remove(facet);
+        }
     }
 
     /**
@@ -77,7 +382,45 @@ public class Credits implements ICredits {
     @Override
     public boolean add(Cast[] cast, Crew[] crew, int id) {
         Credit credit = new Credit(cast, crew);
-        return credit_hashmap.put(id, credit);
+        if (!credit_hashmap.put(id, credit)) {
+            return false;
+        }
+        for (Cast cast_member : credit.cast) {
+            addPerson(cast_people, cast_name_index, cast_member.getID(), cast_member.getName(), cast_member.getProfilePath(), id);
+        }
+        for (Crew crew_member : credit.crew) {
+            addPerson(crew_people, crew_name_index, crew_member.getID(), crew_member.getName(),
+                    crew_member.getProfilePath(), id);
+        }
+        for (int r = 0; r < credit.role_crew_ids.length; r++) {
+            postFacet(department_index, credit.role_departments[r], credit.role_crew_ids[r], id);
+            postFacet(job_index, credit.role_jobs[r], credit.role_crew_ids[r], id);
+        }
+
+        int[] castids = credit.cast_ids;
+        if (!components_stale) {
+            joinComponents(castids);
+        }
+        max_film_id = Math.max(max_film_id, id);
+        for (int castid : castids) {
+            max_cast_id = Math.max(max_cast_id, castid);
+        }
+        //every pair of cast members in the film gains one shared film
+        if (co_star_graph != null) {
+            for (int i = 0; i < castids.length; i++) {
+                co_star_graph.addNode(castids[i]);
+                for (int j = 0; j < i; j++) {
+                    co_star_graph.addEdge(castids[i], castids[j]);
+                }
+            }
+        }
+        cast_graph = null;
+        landmark_index = null;
+        mod_count++;
+        for (ICreditsListener listener : listeners) {
+            listener.filmAdded(id, castids);
+        }
+        return true;
     }
 
     /**
@@ -88,7 +431,48 @@ public class Credits implements ICredits {
      */
     @Override
     public boolean remove(int id) {
-        return credit_hashmap.remove(id);
+        Credit credit = credit_hashmap.get(id);
+        if (credit == null) {
+            return false;
+        }
+        for (int castid : credit.cast_ids) {
+            removePerson(cast_people, cast_name_index, castid, id);
+        }
+        for (int crewid : credit.crew_ids) {
+            removePerson(crew_people, crew_name_index, crewid, id);
+        }
+        //a role repeated on the film was posted once, and unposting it again finds nothing to remove
+        for (int r = 0; r < credit.role_crew_ids.length; r++) {
+            unpostFacet(department_index, credit.role_departments[r], credit.role_crew_ids[r], id);
+            unpostFacet(job_index, credit.role_jobs[r], credit.role_crew_ids[r], id);
+        }
+
+        if (co_star_graph != null) {
+            int[] castids = credit.cast_ids;
+            for (int i = 0; i < castids.length; i++) {
+                for (int j = 0; j < i; j++) {
+                    co_star_graph.removeEdge(castids[i], castids[j]);
+                }
+            }
+            for (int castid : castids) {
+                //cast members with no films left have no edges left either
+                if (!cast_people.containsKey(castid)) {
+                    co_star_graph.removeNode(castid);
+                }
+            }
+        }
+        components_stale = true;
+        cast_graph = null;
+        landmark_index = null;
+        mod_count++;
+        credit_hashmap.remove(id);
+        if (!listeners.isEmpty()) {
+            int[] castids = credit.cast_ids;
+            for (ICreditsListener listener : listeners) {
+                listener.filmRemoved(id, castids);
+            }
+        }
+        return true;
     }
 
     /**
@@ -102,13 +486,7 @@ public class Credits implements ICredits {
             return new int[0];
         }
         //gets all the avaliable keys since key represents the movie id and free from duplicates 
-        int[] filmids = new int[credit_hashmap.getKeySet().size()];
-        int i = 0;
-        for (Integer key : credit_hashmap.getKeySet()) {
-            filmids[i] = key;
-            i++;
-        }
-        return filmids;
+        return credit_hashmap.getKeys();
     }
 
 
@@ -121,26 +499,54 @@ public class Credits implements ICredits {
      */
     @Override
     public int[] getFilmIDsFromCastID(int castID) {
-        if (credit_hashmap.isEmpty()) {
+        //read straight from the person table, so only the films of this cast member are touched
+        Person person = cast_people.get(castID);
+        if (person == null) {
             return new int[0];
         }
-        CustomList<Integer> filmids = new CustomList<>();
-        for (Integer filmid : credit_hashmap.getKeySet()) {
-            if (credit_hashmap.get(filmid).containsCast(castID)) {
-                filmids.add(filmid);
-            }
-        }
+        return person.getFilmIDs();
+    }
 
-        //replaces the linked list with an array; although this requires O(n) time to iterate through,
-        //this widely more memory efficient than predicting the size of the array required.
-        int[] answer = new int[filmids.size()];
-        int i = 0;
-        for (Integer filmid : filmids) {
-            answer[i] = filmid;
-            i++;
-        }
+    /**
+     * Gets the number of films worked on by a given cast ID
+     * 
+     * @param castID The ID of the cast member
+     * @return The number of films the cast member appears in, 0 if they cannot be found
+     */
+    public int getFilmCountFromCastID(int castID) {
+        Person person = cast_people.get(castID);
+        return person == null ? 0 : person.getFilmCount();
+    }
 
-        return answer;
+    /**
+     * Gets the number of films worked on by a given crew ID
+     * 
+     * @param crewID The ID of the crew member
+     * @return The number of films the crew member worked on, 0 if they cannot be found
+     */
+    public int getFilmCountFromCrewID(int crewID) {
+        Person person = crew_people.get(crewID);
+        return person == null ? 0 : person.getFilmCount();
+    }
+
+    /**
+     * Gets the entry in the person table for a given cast ID
+     * 
+     * @param castID The ID of the cast member
+     * @return The cast member's name, profile path and films, or null if they cannot be found
+     */
+    public Person getCastPerson(int castID) {
+        return cast_people.get(castID);
+    }
+
+    /**
+     * Gets the entry in the person table for a given crew ID
+     * 
+     * @param crewID The ID of the crew member
+     * @return The crew member's name, profile path and films, or null if they cannot be found
+     */
+    public Person getCrewPerson(int crewID) {
+        return crew_people.get(crewID);
     }
 
     /**
@@ -152,25 +558,59 @@ public class Credits implements ICredits {
      */
     @Override
     public int[] getFilmIDsFromCrewID(int crewID) {
-        if (credit_hashmap.isEmpty()) {
+        Person person = crew_people.get(crewID);
+        if (person == null) {
             return new int[0];
         }
-        //using a hashmap for the crew data greatly increases implementation efficiency 
-        CustomList<Integer> filmids = new CustomList<>();
-        for (Integer filmid : credit_hashmap.getKeySet()) {
-            if (credit_hashmap.get(filmid).containsCrew(crewID)) {
-                filmids.add(filmid);
-            }
-        }
+        return person.getFilmIDs();
+    }
 
-        int[] answer = new int[filmids.size()];
-        int i = 0;
-        for (Integer filmid : filmids) {
-            answer[i] = filmid;
-            i++;
-        }
+    /**
+     * Gets the IDs of every crew member who worked in a given department (e.g. "Directing")
+     * 
+     * @param department The department, matched exactly
+     * @return An array of crew IDs, empty if nobody worked in the department
+     */
+    public int[] getCrewIDsFromDepartment(String department) {
+        IntObjectHashMap<IntList> index = department == null ? null : department_index.get(department);
+        return index == null ? new int[0] : index.getKeys();
+    }
 
-        return answer;
+    /**
+     * Gets the IDs of every crew member who held a given job (e.g. "Director")
+     * 
+     * @param job The job, matched exactly
+     * @return An array of crew IDs, empty if nobody held the job
+     */
+    public int[] getCrewIDsFromJob(String job) {
+        IntObjectHashMap<IntList> index = job == null ? null : job_index.get(job);
+        return index == null ? new int[0] : index.getKeys();
+    }
+
+    /**
+     * Gets the films a crew member worked on in a given department
+     * 
+     * @param crewID     The ID of the crew member
+     * @param department The department, matched exactly
+     * @return An ascending array of film IDs, empty if there are none
+     */
+    public int[] getFilmIDsFromCrewIDAndDepartment(int crewID, String department) {
+        IntObjectHashMap<IntList> index = department == null ? null : department_index.get(department);
+        IntList films = index == null ? null : index.get(crewID);
+        return films == null ? new int[0] : films.toArray();
+    }
+
+    /**
+     * Gets the films on which a crew member held a given job
+     * 
+     * @param crewID The ID of the crew member
+     * @param job    The job, matched exactly
+     * @return An ascending array of film IDs, empty if there are none
+     */
+    public int[] getFilmIDsFromCrewIDAndJob(int crewID, String job) {
+        IntObjectHashMap<IntList> index = job == null ? null : job_index.get(job);
+        IntList films = index == null ? null : index.get(crewID);
+        return films == null ? new int[0] : films.toArray();
     }
 
     /**
@@ -182,22 +622,9 @@ public class Credits implements ICredits {
      */
     @Override
     public Cast[] getCast(int filmID) {
-        if (!credit_hashmap.containsKey(filmID)) {return null;}
-        
-        CustomList<Cast> cast = new CustomList<>();
-        HashMap<Integer, Cast> cast_hashmap = credit_hashmap.get(filmID).getCastHashmap();
-        for (Integer element : cast_hashmap.getKeySet()) {
-            cast.add(cast_hashmap.get(element));
-        }
-         // as  a result of hashmap  implementation an element can be retrived in O(1) time on average
-        Cast[] answer = new Cast[cast.size()];
-        int i = 0;
-        for (Cast c : cast) {
-            answer[i] = c;
-            i++;
-        }
-        cast.clear();
-        return answer;
+        Credit credit = credit_hashmap.get(filmID);
+        //the credit already holds its cast as an array in id order, so this is a single copy
+        return credit == null ? null : credit.getCast();
     }
 
     /**
@@ -209,22 +636,8 @@ public class Credits implements ICredits {
      */
     @Override
     public Crew[] getCrew(int filmID) {
-        if (!credit_hashmap.containsKey(filmID)) {return null;}
-        
-        CustomList<Crew> crew = new CustomList<>();
-        HashMap<Integer, Crew> crew_hashmap = credit_hashmap.get(filmID).getCrewHashmap();
-        for (Integer element : crew_hashmap.getKeySet()) {
-            crew.add(crew_hashmap.get(element));
-        }
-        // as  a result of hashmap  implementation an element can be retrived in O(1) time on average 
-        Crew[] answer = new Crew[crew.size()];
-        int i = 0;
-        for (Crew c : crew) {
-            answer[i] = c;
-            i++;
-        }
-        crew.clear();
-        return answer;
+        Credit credit = credit_hashmap.get(filmID);
+        return credit == null ? null : credit.getCrew();
     }
 
     /**
@@ -236,9 +649,8 @@ public class Credits implements ICredits {
      */
     @Override
     public int sizeOfCast(int filmID) {
-        if (!credit_hashmap.containsKey(filmID)) {return -1;}
-        HashMap<Integer, Cast> cast_hashmap = credit_hashmap.get(filmID).getCastHashmap();
-        return cast_hashmap.getKeySet().size(); //as a result of hashmap implementation
+        Credit credit = credit_hashmap.get(filmID);
+        return credit == null ? -1 : credit.sizeOfCast();
     }
 
     /**
@@ -250,9 +662,8 @@ public class Credits implements ICredits {
      */
     @Override
     public int sizeofCrew(int filmID) {
-        if (!credit_hashmap.containsKey(filmID)) {return -1;}
-        HashMap<Integer, Crew> crew_hashmap = credit_hashmap.get(filmID).getCrewHashmap();
-        return crew_hashmap.getKeySet().size(); //as a result of hashmap implementation
+        Credit credit = credit_hashmap.get(filmID);
+        return credit == null ? -1 : credit.sizeOfCrew();
     }
 
     /**
@@ -262,7 +673,7 @@ public class Credits implements ICredits {
      */
     @Override
     public int size() {
-        return credit_hashmap.getKeySet().size();
+        return credit_hashmap.size();
     }
 
     /**
@@ -274,15 +685,8 @@ public class Credits implements ICredits {
      */
     @Override
     public String getCastName(int castID) {
-        if (credit_hashmap.isEmpty()) {return null;}
-       
-        for (Integer filmid : credit_hashmap.getKeySet()) {
-            if (credit_hashmap.get(filmid).containsCast(castID)) {
-                return credit_hashmap.get(filmid).getCast(castID).getName();
-            }
-        }
-
-        return null;
+        Person person = cast_people.get(castID);
+        return person == null ? null : person.getName();
     }
 
     /*
@@ -294,15 +698,8 @@ public class Credits implements ICredits {
      */
     @Override
     public String getCrewName(int crewID) {
-        if (credit_hashmap.isEmpty()) {return null;}
-       
-        for (Integer filmid : credit_hashmap.getKeySet()) {
-            if (credit_hashmap.get(filmid).containsCrew(crewID)) {
-                return credit_hashmap.get(filmid).getCrew(crewID).getName();
-            }
-        }
-
-        return null;
+        Person person = crew_people.get(crewID);
+        return person == null ? null : person.getName();
     }
 
     /**
@@ -313,31 +710,8 @@ public class Credits implements ICredits {
      */
     @Override
     public int[] getUniqueCastIDs() {
-        if (credit_hashmap.isEmpty()) {return new int[0]; }
-
-        CustomList<Integer> unique_cast = new CustomList<>();
-
-        for (Integer filmid : credit_hashmap.getKeySet()) {
-            CustomList<Integer> cast_hashmap = credit_hashmap.get(filmid).getCastHashmap().getKeySet();
-            if (cast_hashmap.isEmpty()) { continue; }
-            for (Integer castid : cast_hashmap) {
-                //accesses all the castids and adds them if doesnt already exist in list
-                if (!unique_cast.contains(castid)) {
-                    unique_cast.add(castid);
-                }
-            }
-        }
-
-        int[] answer = new int[unique_cast.size()];
-        int i = 0;
-        for (Integer castid : unique_cast) {
-            answer[i] = castid;
-            i++;
-        }
-
-        if (answer == null || answer.length == 0) {return new int[0];}
-      
-        return answer;
+        //the person table holds each cast id exactly once, so no duplicate checking is needed
+        return cast_people.getKeys();
     }
 
     /**
@@ -348,32 +722,7 @@ public class Credits implements ICredits {
      */
     @Override
     public int[] getUniqueCrewIDs() {
-        if (credit_hashmap.isEmpty()) {return new int[0]; }
-
-        CustomList<Integer> unique_crew = new CustomList<>();
-
-        for (Integer filmid : credit_hashmap.getKeySet()) {
-            CustomList<Integer> crew_hashmap = credit_hashmap.get(filmid).getCrewHashmap().getKeySet();
-            if (crew_hashmap.isEmpty()) { continue; }
-            for (Integer crewid : crew_hashmap) {
-                //accesses all the crewids and adds them if doesnt already exist in list
-                if (!unique_crew.contains(crewid)) {
-                    unique_crew.add(crewid);
-                }
-            }
-        }
-
-        int[] answer = new int[unique_crew.size()];
-        int i = 0;
-        for (Integer crewid : unique_crew) {
-            answer[i] = crewid;
-            i++;
-        }
-
-        //in the instance where no crews exist and the list is empty or null
-        if (answer == null || answer.length == 0) {return new int[0];}
-      
-        return answer;
+        return crew_people.getKeys();
     }
 
     /**
@@ -385,32 +734,15 @@ public class Credits implements ICredits {
      */
     @Override
     public Cast[] findCast(String cast) {
-        if (credit_hashmap.isEmpty()) {return new Cast[0];}
-       
-        CustomList<Cast> list = new CustomList<>();
-
-        //using the .contains method built into java to check if a string is contained within another 
-        for (Integer filmid : credit_hashmap.getKeySet()) {
-            CustomList<Integer> cast_hashmap = credit_hashmap.get(filmid).getCastHashmap().getKeySet();
-            if (cast_hashmap.isEmpty()) { continue; }
-            for (Integer castid : cast_hashmap) {
-                if (credit_hashmap.get(filmid).getCast(castid).getName().contains(cast) && !list.contains(credit_hashmap.get(filmid).getCast(castid))) {
-                    list.add(credit_hashmap.get(filmid).getCast(castid));
-                }
-            }
-        }
-
-        Cast[] answer = new Cast[list.size()];
-        int i = 0;
-        for (Cast element : list) {
-            answer[i] = element;
-            i++;
+        //the name index narrows the search to the people whose names share the term's trigrams, so each person is
+        //found once however many films they are in, as the member stored on the film with the lowest id they are in
+        //(the person's postings list is ascending, so that is its first entry)
+        int[] castids = cast_name_index.find(cast);
+        Cast[] answer = new Cast[castids.length];
+        for (int i = 0; i < castids.length; i++) {
+            answer[i] = credit_hashmap.get(cast_people.get(castids[i]).films.get(0)).getCast(castids[i]);
         }
-
-        if (answer == null || answer.length == 0) {return new Cast[0];}
-      
         return answer;
-
     }
 
     /**
@@ -422,29 +754,11 @@ public class Credits implements ICredits {
      */
     @Override
     public Crew[] findCrew(String crew) {
-        if (credit_hashmap.isEmpty()) {return new Crew[0];}
-       
-        CustomList<Crew> list = new CustomList<>();
-        //using the .contains method built into java to check if a string is contained within another 
-        for (Integer filmid : credit_hashmap.getKeySet()) {
-            CustomList<Integer> crew_hashmap = credit_hashmap.get(filmid).getCrewHashmap().getKeySet();
-            if (crew_hashmap.isEmpty()) { continue; }
-            for (Integer crewid : crew_hashmap) {
-                if (credit_hashmap.get(filmid).getCrew(crewid).getName().contains(crew) && !list.contains(credit_hashmap.get(filmid).getCrew(crewid))) {
-                    list.add(credit_hashmap.get(filmid).getCrew(crewid));
-                }
-            }
+        int[] crewids = crew_name_index.find(crew);
+        Crew[] answer = new Crew[crewids.length];
+        for (int i = 0; i < crewids.length; i++) {
+            answer[i] = credit_hashmap.get(crew_people.get(crewids[i]).films.get(0)).getCrew(crewids[i]);
         }
-
-        Crew[] answer = new Crew[list.size()];
-        int i = 0;
-        for (Crew element : list) {
-            answer[i] = element;
-            i++;
-        }
-
-        if (answer == null || answer.length == 0) {return new Crew[0];}
-      
         return answer;
     }
 
@@ -458,40 +772,7 @@ public class Credits implements ICredits {
      */
     @Override
     public int[] findStarCastID(Ratings ratings) {
-        
-        if (ratings.size() == 0) {
-            return new int[0];
-        }
-
-        CustomList<Cast[]> cast = new CustomList<>();
-        //collect all the movies that have a rating greater than 4.0
-        for (Integer filmid : ratings.getAllMovies()) {
-            if (ratings.getMovieAverageRatings(filmid) >= 4.0) {
-                cast.add(getCast(filmid));
-            }
-        }
-        
-        CustomList<Integer> castids = new CustomList<>();
-        //collect all the cast members who have starred in at least three films
-        for (Cast[] cast_array : cast) {
-            if (cast_array == null) { continue; }
-            for (Cast cast_object : cast_array ) {
-                if (getFilmIDsFromCastID(cast_object.getID()).length >= 3 && !castids.contains(cast_object.getID())) {
-                    castids.add(cast_object.getID());
-                }
-            }
-        }
-
-        int[] answer = new int[castids.size()];
-        int i = 0;
-        for (Integer castid : castids) {
-            answer[i] = castid;
-            i++;
-        }
-        //check for if the list is empty or the length is 0
-        if (answer == null || answer.length == 0) {return new int[0];}
-      
-        return answer;
+        return getStarAnalytics(ratings).getStars();
     }
 
     public static int getIndex(int[] arr, int target) {
@@ -513,42 +794,84 @@ public class Credits implements ICredits {
      */
     @Override
     public int[] findSuperStarCastID(Ratings ratings) {
-      
-        /*
-         * An adjacency matrix / graph is used here to show the relationship between the different cast members that are already 
-         * star casts. The nodes represent the star casts from the list of the star cast found above, by index.
-         * They are placed by index into the matrix, then the loops iterate through the structure to find all the movies in which 
-         * the star casts star in; if another starcast is found, then an edge is created between the two node. The Graph is then iterated 
-         * through so that all the nodes that have more than two connections are added to the list. A list is used to increase memort, 
-         * since the size of the array cannot be predicted; the list is converted to an array that is then returned.
-         */
+        return getStarAnalytics(ratings).getSuperstars();
+    }
 
+    /*
+     * Both star sets are worked out together by a StarAnalytics for the ratings in use. By default it caches them and
+     * recomputes them once the credits or those ratings have changed; a live one instead listens to both stores and
+     * adjusts the sets on every change, which suits ratings that keep arriving after loading. Whichever was asked for
+     * last is kept and used by findStarCastID and findSuperStarCastID.
+     */
+    public StarAnalytics getStarAnalytics(Ratings ratings) {
+        if (star_analytics == null || star_analytics.getRatings() != ratings) {
+            return getStarAnalytics(ratings, false);
+        }
+        return star_analytics;
+    }
 
-        int[] starCastIDs = findStarCastID(ratings); //taking this out greatly increases the time efficiency without having to be constantly retrieved 
-        AdjacencyMatrix graph = new AdjacencyMatrix(starCastIDs);
-        //add connection for all nodes that belong to the same movie
-        for (Integer castid : starCastIDs) {
-            for(Integer filmid : getFilmIDsFromCastID(castid)) {
-                for (Cast cast_member : getCast(filmid)) {
-                    if (cast_member.getID() == castid || getIndex(starCastIDs, cast_member.getID()) == -1) { 
-                        continue; 
-                    }
-                    graph.addConnection(getIndex(starCastIDs, castid), getIndex(starCastIDs, cast_member.getID()));
+    public StarAnalytics getStarAnalytics(Ratings ratings, boolean live) {
+        if (star_analytics != null && star_analytics.getRatings() == ratings && star_analytics.isLive() == live) {
+            return star_analytics;
+        }
+        if (star_analytics != null) {
+            star_analytics.detach();
+        }
+        star_analytics = new StarAnalytics(this, ratings, live);
+        return star_analytics;
+    }
+
+    //the number of films two cast members share
+    int sharedFilmCount(int castIDA, int castIDB) {
+        if (co_star_graph != null) {
+            return co_star_graph.weight(castIDA, castIDB);
+        }
+        Person a = cast_people.get(castIDA);
+        Person b = cast_people.get(castIDB);
+        if (a == null || b == null) {
+            return 0;
+        }
+        //both film lists are ascending, so one merge-style walk counts the films they have in common
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.films.size() && j < b.films.size()) {
+            int filmA = a.films.get(i);
+            int filmB = b.films.get(j);
+            if (filmA == filmB) {
+                shared++;
+                i++;
+                j++;
+            } else if (filmA < filmB) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared;
+    }
+
+    //true if castid shares at least two films with one of the stars
+    boolean sharesTwoFilmsWithStar(int castid, IntIntHashMap stars) {
+        if (co_star_graph != null) {
+            //the co-star graph already counts shared films, so only the cast member's own neighbours are checked
+            for (int costar : co_star_graph.neighborsOf(castid)) {
+                if (stars.containsKey(costar) && co_star_graph.weight(castid, costar) >= 2) {
+                    return true;
                 }
             }
+            return false;
         }
-    
-        int[] indexs = graph.findNodesWithMultipleConnections();
-        int[] answer = new int[indexs.length];
-        int i = 0;
-        for (Integer index : indexs) {
-            answer[i] = starCastIDs[index];
-            i++;
+        IntIntHashMap shared = new IntIntHashMap();
+        for (int filmid : getFilmIDsFromCastID(castid)) {
+            for (int costar : credit_hashmap.get(filmid).cast_ids) {
+                if (costar != castid && stars.containsKey(costar) && shared.increment(costar, 1) >= 2) {
+                    return true;
+                }
+            }
         }
-    
-        return answer;
+        return false;
     }
-    
 
     /**
      * Finds the distance between cast members A and B, by looking at common cast
@@ -575,42 +898,227 @@ public class Credits implements ICredits {
             array[0] = castIDB;
             return array;
         }
+        return findDistance(castIDA, castIDB, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Finds the distance between cast members A and B as findDistance(castIDA, castIDB) does, but gives up on paths
+     * longer than maxDepth. The search runs from both cast members at once.
+     * 
+     * @param castIDA  The starting cast member
+     * @param castIDB  The finishing cast member
+     * @param maxDepth The most cast IDs the returned path may hold
+     * @return The path as findDistance(castIDA, castIDB) returns it, or an empty array if there is no connection
+     *         within maxDepth steps
+     */
+    @Override
+    public int[] findDistance(int castIDA, int castIDB, int maxDepth) {
+        if (size() == 0) {
+            return new int[0];
+        }
+        if (castIDA == castIDB) {
+            return new int[] { castIDB };
+        }
+        //cast members in different components have no path between them, which needs no search to find out
+        if (!getCastComponents().connected(castIDA, castIDB)) {
+            return new int[0];
+        }
+        //the CSR snapshot comes from the live co-star graph when one is kept and from the films otherwise, and is
+        //cached either way, so repeated queries only pay for the bidirectional search
+        //the path from the graph starts with castIDA itself, which is not part of the answer
+        int[] path = getCastGraph().findShortestPath(castIDA, castIDB, maxDepth);
+        if (path.length == 0) {
+            return new int[0];
+        }
+        int[] answer = new int[path.length - 1];
+        System.arraycopy(path, 1, answer, 0, answer.length);
+        return answer;
+    }
+
+    /**
+     * Finds the distance between cast members A and B as findDistance(castIDA, castIDB, maxDepth) does, walking the
+     * films between them instead of a co-star graph: from each cast member to the films they appear in, and from each
+     * film to its cast. Every film and cast member is visited at most once, tracked in bitmaps indexed by id, so the
+     * search needs memory in proportion to the credits rather than to the number of co-star pairs. It finds a path of
+     * the same length as findDistance, though where several shortest paths exist it may pick a different one. It is
+     * slower per query than findDistance, which searches a cached graph from both ends, but it builds nothing, so it
+     * suits a one-off query on credits that are changing too often for a cached graph to last.
+     * 
+     * @param castIDA  The starting cast member
+     * @param castIDB  The finishing cast member
+     * @param maxDepth The most cast IDs the returned path may hold
+     * @return The path as findDistance(castIDA, castIDB) returns it, or an empty array if there is no connection
+     *         within maxDepth steps
+     */
+    public int[] findDistanceThroughFilms(int castIDA, int castIDB, int maxDepth) {
+        if (castIDA == castIDB) {
+            return new int[] { castIDB };
+        }
+        if (!cast_people.containsKey(castIDA) || !cast_people.containsKey(castIDB)) {
+            return new int[0];
+        }
+
+        long[] seen_cast = new long[(max_cast_id >>> 6) + 1];
+        long[] seen_film = new long[(max_film_id >>> 6) + 1];
+        IntIntHashMap parent = new IntIntHashMap();
+        IntList frontier = new IntList();
+        frontier.add(castIDA);
+        mark(seen_cast, castIDA);
+
+        for (int depth = 1; depth <= maxDepth && !frontier.isEmpty(); depth++) {
+            IntList next = new IntList();
+            for (int f = 0; f < frontier.size(); f++) {
+                int castid = frontier.get(f);
+                IntList films = cast_people.get(castid).films;
+                for (int k = 0; k < films.size(); k++) {
+                    int filmid = films.get(k);
+                    if (!mark(seen_film, filmid)) {
+                        continue;
+                    }
+                    for (int costar : credit_hashmap.get(filmid).cast_ids) {
+                        if (!mark(seen_cast, costar)) {
+                            continue;
+                        }
+                        parent.put(costar, castid);
+                        if (costar == castIDB) {
+                            //walk back from castIDB; castIDA itself is not part of the answer
+                            int[] answer = new int[depth];
+                            int current = castIDB;
+                            for (int i = depth - 1; i >= 0; i--) {
+                                answer[i] = current;
+                                current = parent.get(current);
+                            }
+                            return answer;
+                        }
+                        next.add(costar);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return new int[0];
+    }
+
+    //sets the bit for id, returning false if it was already set
+    private static boolean mark(long[] bitmap, int id) {
+        long bit = 1L << (id & 63);
+        if ((bitmap[id >>> 6] & bit) != 0) {
+            return false;
+        }
+        bitmap[id >>> 6] |= bit;
+        return true;
+    }
+
+    /*
+     * The co-star graph already has a node per cast id and an edge between every two cast members who share a film, kept
+     * up to date by add and remove, so a snapshot is just a copy into flat arrays. Without the co-star graph the snapshot
+     * is built from the films, each film's cast translated to node indices once. Either way it is kept until the next
+     * add or remove so repeated distance queries only pay for their breadth first search.
+     */
+    public CsrGraph getCastGraph() {
+        if (cast_graph != null) {
+            return cast_graph;
+        }
+        if (co_star_graph != null) {
+            cast_graph = new CsrGraph(co_star_graph);
+            return cast_graph;
+        }
+
         int[] ids = getUniqueCastIDs();
-        AdjacencyMatrix graph = new AdjacencyMatrix(ids);
-            /*
-            *  implemented in a way such that a connection is added / edge is added between two nodes, each node representing
-            *  a unique cast id, and each movie that joins two nodes is represented via an edge. A breadth first algroithmn is used,
-            *  using a queue to find the shortest distance between two nodes in the graph, then returns the list of nodes.
-            */
-        for (Integer castid : ids) {
-            for(Integer filmid : getFilmIDsFromCastID(castid)) {
-                for (Cast cast_member : getCast(filmid)) {
-                    if (cast_member.getID() == castid) { 
-                        continue; 
+        IntIntHashMap index = new IntIntHashMap(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            index.put(ids[i], i);
+        }
+        //each row is built for one cast member from their own films, and seen[j] == i + 1 marks co-star j as already in
+        //row i, so a pair shared by several films and the cast member themselves are never added; the rows hold each
+        //co-star pair once rather than once per film
+        IntList[] adjacency = new IntList[ids.length];
+        int[] seen = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            IntList row = new IntList();
+            seen[i] = i + 1;
+            IntList films = cast_people.get(ids[i]).films;
+            for (int k = 0; k < films.size(); k++) {
+                for (int costar : credit_hashmap.get(films.get(k)).cast_ids) {
+                    int j = index.get(costar);
+                    if (seen[j] != i + 1) {
+                        seen[j] = i + 1;
+                        row.add(j);
                     }
-                    graph.addConnection(getIndex(ids, castid), getIndex(ids, cast_member.getID()));
                 }
             }
+            adjacency[i] = row;
         }
+        cast_graph = new CsrGraph(ids, adjacency);
+        return cast_graph;
+    }
 
-        // BFS algorithm 
-        CustomList<Integer> nodes = graph.findShortestPath(graph.getMatrix(), getIndex(ids, castIDA), getIndex(getUniqueCastIDs(), castIDB));
-       
-        if (nodes.isEmpty()) { 
-            return new int[0]; 
+    /**
+     * Finds the distance from one cast member to every other cast member, expanding each level of the search in
+     * parallel
+     * 
+     * @param castID The starting cast member
+     * @return The finished search; its distance and parent arrays are indexed by position in getCastGraph()
+     */
+    public ParallelBfs findAllDistances(int castID) {
+        ParallelBfs search = new ParallelBfs(getCastGraph());
+        search.run(castID);
+        return search;
+    }
+
+    public LandmarkIndex getLandmarkIndex() {
+        if (landmark_index == null) {
+            landmark_index = new LandmarkIndex(getCastGraph(), LANDMARK_COUNT);
         }
-        //the list of nodes that are produced contains the castIDA as the head, and therefore this is removed before converting into an array 
-        nodes.remove(nodes.getHead());
+        return landmark_index;
+    }
 
-        int[] answer = new int[nodes.size()];
-        int i = 0;
-        for (Integer index : nodes ) {
-            answer[i] = getUniqueCastIDs()[index];
-            i++;
+    /**
+     * Finds the distance between every pair of a list of cast members, for workloads such as comparing everyone on a
+     * shortlist. Each distance is read from the landmark bounds when they agree and only searched for when they do not.
+     * 
+     * @param castIDs The cast members to compare
+     * @return distances[i][j], the length of the path findDistance returns for two different cast members, 0 on the
+     *         diagonal, or -1 if there is no connection
+     */
+    public int[][] findDistances(int[] castIDs) {
+        int[][] distances = new int[castIDs.length][castIDs.length];
+        DisjointSet components = getCastComponents();
+        LandmarkIndex landmarks = getLandmarkIndex();
+        for (int i = 0; i < castIDs.length; i++) {
+            distances[i][i] = components.contains(castIDs[i]) ? 0 : -1;
+            for (int j = 0; j < i; j++) {
+                int distance = -1;
+                if (components.connected(castIDs[i], castIDs[j])) {
+                    distance = landmarks.distance(castIDs[i], castIDs[j]);
+                }
+                distances[i][j] = distance;
+                distances[j][i] = distance;
+            }
         }
-        
-        return answer;
+        return distances;
     }
 
-}
+    /*
+     * The connected components of the co-star graph: two cast members are in the same component exactly when
+     * findDistance finds a path between them. After a remove the components are rebuilt from the remaining films in one
+     * linear pass.
+     */
+    public DisjointSet getCastComponents() {
+        if (components_stale) {
+            cast_components.clear();
+            for (int filmid : credit_hashmap.getKeys()) {
+                joinComponents(credit_hashmap.get(filmid).cast_ids);
+            }
+            components_stale = false;
+        }
+        return cast_components;
+    }
+
+    //the live co-star graph, or null if it is not maintained; the weight of an edge is the number of films the two cast
+    //members share
+    public WeightedIntGraph getCoStarGraph() {
+        return co_star_graph;
+    }
 
+}
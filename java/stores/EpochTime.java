@@ -0,0 +1,62 @@
+package stores;
+
+import java.time.LocalDate;
+import java.util.Calendar;
+
+/*
+ * The stores keep times as primitives: rating timestamps as epoch seconds and release dates as epoch days. These helpers
+ * are the adapter between those and java.util.Calendar, which is still what the screens and the Calendar based
+ * interface methods pass in and expect back.
+ */
+public final class EpochTime {
+
+    //stored in place of an epoch day for a film without a release date
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    private EpochTime() {
+    }
+
+    public static long toEpochSecond(Calendar calendar) {
+        return Math.floorDiv(calendar.getTimeInMillis(), 1000L);
+    }
+
+    public static Calendar fromEpochSecond(long seconds) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(seconds * 1000L);
+        return calendar;
+    }
+
+    /*
+     * Calendar.after(start) and Calendar.before(end) compare milliseconds. A time stored in whole seconds t satisfies
+     * t * 1000 > startMillis exactly when t > floor(startMillis / 1000), and t * 1000 < endMillis exactly when
+     * t < ceil(endMillis / 1000), so these give the exclusive second bounds matching the old Calendar comparisons.
+     */
+    public static long startSecond(Calendar start) {
+        return Math.floorDiv(start.getTimeInMillis(), 1000L);
+    }
+
+    public static long endSecond(Calendar end) {
+        return -Math.floorDiv(-end.getTimeInMillis(), 1000L);
+    }
+
+    //the calendar date of the Calendar's own fields, ignoring the time of day
+    public static int toEpochDay(Calendar calendar) {
+        if (calendar == null) {
+            return NO_DATE;
+        }
+        return (int) LocalDate.of(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1,
+                calendar.get(Calendar.DAY_OF_MONTH)).toEpochDay();
+    }
+
+    public static Calendar fromEpochDay(int day) {
+        if (day == NO_DATE) {
+            return null;
+        }
+        LocalDate date = LocalDate.ofEpochDay(day);
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(date.getYear(), date.getMonthValue() - 1, date.getDayOfMonth());
+        return calendar;
+    }
+
+}
@@ -0,0 +1,451 @@
+package stores;
+
+import java.util.Calendar;
+
+import interfaces.IRatings;
+import structures.*;
+
+/*
+ * A Ratings engine for very large rating files. Instead of a nested map of Rating objects, every rating is one row in a
+ * set of primitive column arrays (movie id, user id, rating in half stars, timestamp in epoch seconds), and the movie id
+ * and user id are packed into a single long key that indexes the row through one LongIntHashMap. A row costs 13 bytes of
+ * column data plus its slot in the index, so the full ratings.csv fits in a modest heap.
+ */
+public class FlatRatings implements IRatings {
+
+    private static final int CAPACITY = 10000;
+
+    private int[] movieIds;
+    private int[] userIds;
+    private byte[] halfStars;
+    private int[] seconds;
+    private int size;
+
+    private LongIntHashMap index;
+
+    //every movie that has ever had a rating; like the outer map of Ratings it is never shrunk, and set only adds a new
+    //rating for a movie that is not in it
+    private IntIntHashMap seenMovies;
+
+    //rows grouped by movie and by user; built when first needed, then patched in place by every add and remove
+    private Grouping byMovie;
+    private Grouping byUser;
+
+    //------------------------------nested grouping class
+    /*
+     * The row numbers grouped by one id column, each group holding its own list of rows, so a per-movie or per-user query
+     * only touches that id's own rows. Building it is O(rows) and sizes every list exactly; after that a new row is
+     * appended to its group, and a removed row is swapped with the last row of its group's list and dropped. position[]
+     * records where each row sits in its group's list, so both take O(1) rather than a rebuild or a scan of the group. An
+     * emptied group is closed by moving the last group into its place, which keeps the group numbers dense.
+     */
+    private class Grouping {
+
+        private IntIntHashMap groupOf;
+        private int[] ids;
+        private IntList[] rows;
+        private int[] position;
+        private int groups;
+
+        public Grouping(int[] column) {
+            groupOf = new IntIntHashMap();
+            int[] counts = new int[16];
+            ids = new int[16];
+            groups = 0;
+            for (int row = 0; row < size; row++) {
+                int group = groupOf.get(column[row]);
+                if (group == -1) {
+                    group = groups;
+                    groupOf.put(column[row], group);
+                    if (group == ids.length) {
+                        ids = grow(ids);
+                        counts = grow(counts);
+                    }
+                    ids[group] = column[row];
+                    groups++;
+                }
+                counts[group]++;
+            }
+
+            rows = new IntList[ids.length];
+            for (int g = 0; g < groups; g++) {
+                rows[g] = new IntList(counts[g]);
+            }
+            position = new int[Math.max(movieIds.length, 16)];
+            for (int row = 0; row < size; row++) {
+                IntList list = rows[groupOf.get(column[row])];
+                position[row] = list.size();
+                list.add(row);
+            }
+        }
+
+        public int groups() {
+            return groups;
+        }
+
+        public int find(int id) {
+            return groupOf.get(id);
+        }
+
+        public int count(int group) {
+            return rows[group].size();
+        }
+
+        public int idOf(int group) {
+            return ids[group];
+        }
+
+        public IntList rowsOf(int group) {
+            return rows[group];
+        }
+
+        //files row under id, opening a group for id if it has none
+        public void add(int id, int row) {
+            int group = groupOf.get(id);
+            if (group == -1) {
+                if (groups == ids.length) {
+                    ids = grow(ids);
+                    IntList[] tmp = new IntList[rows.length * 2];
+                    System.arraycopy(rows, 0, tmp, 0, groups);
+                    rows = tmp;
+                }
+                group = groups;
+                groupOf.put(id, group);
+                ids[group] = id;
+                rows[group] = new IntList(4);
+                groups++;
+            }
+            if (row >= position.length) {
+                position = grow(position);
+            }
+            position[row] = rows[group].size();
+            rows[group].add(row);
+        }
+
+        //takes row out of the group of id, closing the group once it is empty
+        public void remove(int id, int row) {
+            int group = groupOf.get(id);
+            IntList list = rows[group];
+            int last = list.size() - 1;
+            int moved = list.get(last);
+            list.set(position[row], moved);
+            position[moved] = position[row];
+            list.removeAt(last);
+            if (list.isEmpty()) {
+                groups--;
+                groupOf.remove(id);
+                if (group != groups) {
+                    ids[group] = ids[groups];
+                    rows[group] = rows[groups];
+                    groupOf.replace(ids[group], group);
+                }
+                rows[groups] = null;
+            }
+        }
+
+        //renumbers a row of the group of id that has been moved from one row number to another
+        public void move(int id, int from, int to) {
+            rows[groupOf.get(id)].set(position[from], to);
+            position[to] = position[from];
+        }
+
+    }
+    //------------------------------end of nested grouping class
+
+    public FlatRatings(int expectedRatings) {
+        int capacity = Math.max(expectedRatings, 16);
+        movieIds = new int[capacity];
+        userIds = new int[capacity];
+        halfStars = new byte[capacity];
+        seconds = new int[capacity];
+        index = new LongIntHashMap(capacity);
+        seenMovies = new IntIntHashMap();
+        size = 0;
+    }
+
+    public FlatRatings() {
+        this(CAPACITY);
+    }
+
+    private static int[] grow(int[] array) {
+        int[] tmp = new int[array.length * 2];
+        System.arraycopy(array, 0, tmp, 0, array.length);
+        return tmp;
+    }
+
+    //the movie id takes the high 32 bits and the user id the low 32 bits
+    private static long key(int userID, int movieID) {
+        return ((long) movieID << 32) | (userID & 0xffffffffL);
+    }
+
+    private static byte toHalfStars(float rating) {
+        return (byte) Math.round(rating * 2);
+    }
+
+    private static float fromHalfStars(byte halfStars) {
+        return halfStars / 2.0f;
+    }
+
+    private static boolean between(int seconds, long start, long end) {
+        return seconds > start && seconds < end;
+    }
+
+    private Grouping byMovie() {
+        if (byMovie == null) {
+            byMovie = new Grouping(movieIds);
+        }
+        return byMovie;
+    }
+
+    private Grouping byUser() {
+        if (byUser == null) {
+            byUser = new Grouping(userIds);
+        }
+        return byUser;
+    }
+
+    @Override
+    public boolean add(int userID, int movieID, float rating, Calendar timestamp) {
+        return add(userID, movieID, rating, EpochTime.toEpochSecond(timestamp));
+    }
+
+    @Override
+    public boolean add(int userID, int movieID, float rating, long timestamp) {
+        if (!index.put(key(userID, movieID), size)) {
+            return false;
+        }
+        if (size == movieIds.length) {
+            movieIds = grow(movieIds);
+            userIds = grow(userIds);
+            seconds = grow(seconds);
+            byte[] tmp = new byte[halfStars.length * 2];
+            System.arraycopy(halfStars, 0, tmp, 0, size);
+            halfStars = tmp;
+        }
+        seenMovies.put(movieID, 1);
+        movieIds[size] = movieID;
+        userIds[size] = userID;
+        halfStars[size] = toHalfStars(rating);
+        seconds[size] = (int) timestamp;
+        if (byMovie != null) {
+            byMovie.add(movieID, size);
+        }
+        if (byUser != null) {
+            byUser.add(userID, size);
+        }
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(int userID, int movieID) {
+        long key = key(userID, movieID);
+        int row = index.get(key);
+        if (row == -1) {
+            return false;
+        }
+        index.remove(key);
+        if (byMovie != null) {
+            byMovie.remove(movieID, row);
+        }
+        if (byUser != null) {
+            byUser.remove(userID, row);
+        }
+
+        //the last row is moved into the hole so the columns stay dense
+        int last = size - 1;
+        if (row != last) {
+            if (byMovie != null) {
+                byMovie.move(movieIds[last], last, row);
+            }
+            if (byUser != null) {
+                byUser.move(userIds[last], last, row);
+            }
+            movieIds[row] = movieIds[last];
+            userIds[row] = userIds[last];
+            halfStars[row] = halfStars[last];
+            seconds[row] = seconds[last];
+            index.replace(key(userIds[row], movieIds[row]), row);
+        }
+        size--;
+        return true;
+    }
+
+    @Override
+    public boolean set(int userID, int movieID, float rating, Calendar timestamp) {
+        return set(userID, movieID, rating, EpochTime.toEpochSecond(timestamp));
+    }
+
+    @Override
+    public boolean set(int userID, int movieID, float rating, long timestamp) {
+        int row = index.get(key(userID, movieID));
+        if (row == -1) {
+            //as in Ratings, only a movie nobody has rated yet gets a new rating from set
+            return seenMovies.containsKey(movieID) ? false : add(userID, movieID, rating, timestamp);
+        }
+        halfStars[row] = toHalfStars(rating);
+        seconds[row] = (int) timestamp;
+        return true;
+    }
+
+    @Override
+    public float[] getRatingsBetween(Calendar start, Calendar end) {
+        return getRatingsBetween(EpochTime.startSecond(start), EpochTime.endSecond(end));
+    }
+
+    @Override
+    public float[] getRatingsBetween(long start, long end) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (between(seconds[row], start, end)) {
+                count++;
+            }
+        }
+        float[] answer = new float[count];
+        int i = 0;
+        for (int row = 0; row < size; row++) {
+            if (between(seconds[row], start, end)) {
+                answer[i] = fromHalfStars(halfStars[row]);
+                i++;
+            }
+        }
+        return answer;
+    }
+
+    private float[] ratingsBetween(Grouping grouping, int id, long start, long end) {
+        int group = grouping.find(id);
+        if (group == -1) {
+            return new float[0];
+        }
+        IntList rows = grouping.rowsOf(group);
+        int count = 0;
+        for (int p = 0; p < rows.size(); p++) {
+            if (between(seconds[rows.get(p)], start, end)) {
+                count++;
+            }
+        }
+        float[] answer = new float[count];
+        int i = 0;
+        for (int p = 0; p < rows.size(); p++) {
+            int row = rows.get(p);
+            if (between(seconds[row], start, end)) {
+                answer[i] = fromHalfStars(halfStars[row]);
+                i++;
+            }
+        }
+        return answer;
+    }
+
+    @Override
+    public float[] getMovieRatingsBetween(int movieID, Calendar start, Calendar end) {
+        return getMovieRatingsBetween(movieID, EpochTime.startSecond(start), EpochTime.endSecond(end));
+    }
+
+    @Override
+    public float[] getMovieRatingsBetween(int movieID, long start, long end) {
+        return ratingsBetween(byMovie(), movieID, start, end);
+    }
+
+    @Override
+    public float[] getUserRatingsBetween(int userID, Calendar start, Calendar end) {
+        return getUserRatingsBetween(userID, EpochTime.startSecond(start), EpochTime.endSecond(end));
+    }
+
+    @Override
+    public float[] getUserRatingsBetween(int userID, long start, long end) {
+        return ratingsBetween(byUser(), userID, start, end);
+    }
+
+    private float[] ratingsOf(Grouping grouping, int id) {
+        int group = grouping.find(id);
+        if (group == -1) {
+            return new float[0];
+        }
+        IntList rows = grouping.rowsOf(group);
+        float[] answer = new float[rows.size()];
+        for (int p = 0; p < rows.size(); p++) {
+            answer[p] = fromHalfStars(halfStars[rows.get(p)]);
+        }
+        return answer;
+    }
+
+    @Override
+    public float[] getMovieRatings(int movieID) {
+        return ratingsOf(byMovie(), movieID);
+    }
+
+    @Override
+    public float[] getUserRatings(int userID) {
+        return ratingsOf(byUser(), userID);
+    }
+
+    private float averageOf(Grouping grouping, int id) {
+        int group = grouping.find(id);
+        if (group == -1) {
+            return 0;
+        }
+        IntList rows = grouping.rowsOf(group);
+        long sum = 0;
+        for (int p = 0; p < rows.size(); p++) {
+            sum += halfStars[rows.get(p)];
+        }
+        return sum / 2.0f / rows.size();
+    }
+
+    @Override
+    public float getMovieAverageRatings(int movieID) {
+        return averageOf(byMovie(), movieID);
+    }
+
+    @Override
+    public float getUserAverageRatings(int userID) {
+        return averageOf(byUser(), userID);
+    }
+
+    //picks the num ids with the most rows with a partial quickselect over the group sizes
+    private int[] mostRows(Grouping grouping, int num) {
+        int groups = grouping.groups();
+        int[] counts = new int[groups];
+        int[] ids = new int[groups];
+        for (int g = 0; g < groups; g++) {
+            counts[g] = grouping.count(g);
+            ids[g] = grouping.idOf(g);
+        }
+        return TopK.select(counts, ids, groups, num);
+    }
+
+    @Override
+    public int[] getTopMovies(int num) {
+        if (size() == 0 || num <= 0) {
+            return new int[0];
+        }
+        return mostRows(byMovie(), num);
+    }
+
+    @Override
+    public int[] getMostRatedUsers(int num) {
+        if (size() == 0 || num <= 0) {
+            return new int[0];
+        }
+        return mostRows(byUser(), num);
+    }
+
+    public boolean containsMovie(int movieID) {
+        return byMovie().find(movieID) != -1;
+    }
+
+    public int[] getAllMovies() {
+        Grouping grouping = byMovie();
+        int[] answer = new int[grouping.groups()];
+        for (int g = 0; g < answer.length; g++) {
+            answer[g] = grouping.idOf(g);
+        }
+        return answer;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+}
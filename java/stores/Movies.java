@@ -20,7 +20,8 @@ public class Movies implements IMovies {
         private String[] data;
         
         private Genre[] genres;
-        private Calendar release;
+        //epoch day of the release date, or EpochTime.NO_DATE; a primitive rather than a Calendar object per film
+        private int release;
         private long budget;
         private long revenue;
         private String[] languages;
@@ -37,7 +38,7 @@ public class Movies implements IMovies {
         private CustomList<String> countries;
 
         public Movie(int id, String title, String originalTitle, String overview, String tagline, String status,
-                        Genre[] genres, Calendar release, long budget, long revenue, String[] languages, String originalLanguage,
+                        Genre[] genres, int release, long budget, long revenue, String[] languages, String originalLanguage,
                         double runtime, String homepage, boolean adult, boolean video, String poster) 
         {
             this.id = id;
@@ -59,7 +60,7 @@ public class Movies implements IMovies {
             return id;
         }
 
-        public Calendar getRelease() {
+        public int getRelease() {
             return release;
         }
 
@@ -175,12 +176,12 @@ public class Movies implements IMovies {
     /* two constructors required: since could be done in one hashmap for the best memory efficiency, but the time complexity may hinder the app performance, 
      * therefore this implementation was the best memeory to time effiencity trade off. the hashmap are initialised within the constructor, with the capacity given above.
      */
-    HashMap<Integer, Movie> hashmap;
-    HashMap<Integer, Collection> collection_map;
+    IntObjectHashMap<Movie> hashmap;
+    IntObjectHashMap<Collection> collection_map;
     
     public Movies(int capacity) {
-        hashmap = new HashMap<>(capacity);
-        collection_map = new HashMap<>(capacity);
+        hashmap = new IntObjectHashMap<>(capacity);
+        collection_map = new IntObjectHashMap<>(capacity);
     }
 
     public Movies() {
@@ -194,8 +195,15 @@ public class Movies implements IMovies {
     @Override
     public boolean add(int id, String title, String originalTitle, String overview, String tagline, String status, Genre[] genres, Calendar release, 
             long budget, long revenue, String[] languages, String originalLanguage, double runtime, String homepage, boolean adult, boolean video, String poster) {
+        return add(id, title, originalTitle, overview, tagline, status, genres, EpochTime.toEpochDay(release), budget, revenue, languages,
+                        originalLanguage, runtime, homepage, adult, video, poster);
+    }
+
+    @Override
+    public boolean add(int id, String title, String originalTitle, String overview, String tagline, String status, Genre[] genres, int releaseDay, 
+            long budget, long revenue, String[] languages, String originalLanguage, double runtime, String homepage, boolean adult, boolean video, String poster) {
         
-            Movie movie = new Movie(id, title, originalTitle, overview, tagline, status, genres, release, budget, revenue, languages, originalLanguage,
+            Movie movie = new Movie(id, title, originalTitle, overview, tagline, status, genres, releaseDay, budget, revenue, languages, originalLanguage,
                                          runtime, homepage, adult, video, poster);
             
             boolean added = hashmap.put(movie.getId(), movie);    
@@ -232,15 +240,27 @@ public class Movies implements IMovies {
      */
     @Override
     public int[] getAllIDsReleasedInRange(Calendar start, Calendar end) {
+        return getAllIDsReleasedInRange(EpochTime.toEpochDay(start), EpochTime.toEpochDay(end));
+    }
+
+    /**
+     * Finds the film IDs of all films released strictly between two days
+     * 
+     * @param startDay The epoch day the range starts on (exclusive)
+     * @param endDay   The epoch day the range ends on (exclusive)
+     * @return An array of film IDs that were released between startDay and endDay
+     */
+    @Override
+    public int[] getAllIDsReleasedInRange(int startDay, int endDay) {
         if (hashmap.isEmpty()) {
             return new int[0];
         } 
         
         CustomList<Integer> ids = new CustomList<>();
-        for (Integer id : hashmap.getKeySet()) {
-            Calendar release = hashmap.get(id).getRelease();
-            if (release == null) { continue; }
-            if (release.after(start) && release.before(end)) {
+        for (int id : hashmap.getKeys()) {
+            int release = hashmap.get(id).getRelease();
+            if (release == EpochTime.NO_DATE) { continue; }
+            if (release > startDay && release < endDay) {
                 ids.add(hashmap.get(id).getId());
             }
         }
@@ -270,15 +290,32 @@ public class Movies implements IMovies {
      */
     @Override
     public int[] getAllIDsReleasedInRangeAndBudget(Calendar start, Calendar end, long lowerBudget, long upperBudget) {
+        return getAllIDsReleasedInRangeAndBudget(EpochTime.toEpochDay(start), EpochTime.toEpochDay(end), lowerBudget, upperBudget);
+    }
+
+    /**
+     * Finds the film IDs of all films released strictly between two days and with
+     * a budget strictly between two bounds
+     * 
+     * @param startDay    The epoch day the range starts on (exclusive)
+     * @param endDay      The epoch day the range ends on (exclusive)
+     * @param lowerBudget The lowest bound of the range for budgets
+     * @param upperBudget The upper bound of the range of budgets
+     * @return An array of film IDs that were released between startDay and endDay,
+     *         and had a budget between lowerBudget and upperBudget
+     */
+    @Override
+    public int[] getAllIDsReleasedInRangeAndBudget(int startDay, int endDay, long lowerBudget, long upperBudget) {
         if (hashmap.isEmpty()) {
             return new int[0];
         } 
         
         CustomList<Integer> ids = new CustomList<>();
-        for (Integer id : hashmap.getKeySet()) {
-            Calendar release = hashmap.get(id).getRelease();
-            Long budget = hashmap.get(id).getBudget();
-            if (release.after(start) && release.before(end) && budget > lowerBudget && budget < upperBudget) {
+        for (int id : hashmap.getKeys()) {
+            int release = hashmap.get(id).getRelease();
+            long budget = hashmap.get(id).getBudget();
+            if (release == EpochTime.NO_DATE) { continue; }
+            if (release > startDay && release < endDay && budget > lowerBudget && budget < upperBudget) {
                 ids.add(hashmap.get(id).getId());
             }
         }
@@ -381,6 +418,19 @@ public class Movies implements IMovies {
     @Override
     public Calendar getRelease(int id) {
         if (!contains(id)) {return null;}
+        return EpochTime.fromEpochDay(hashmap.get(id).getRelease());
+    }
+
+    /**
+     * Gets the release date of a particular film as an epoch day
+     * 
+     * @param id The movie ID
+     * @return The epoch day of the release date of the requested film. If the film
+     *         cannot be found, or has no release date, then return EpochTime.NO_DATE
+     */
+    @Override
+    public int getReleaseDay(int id) {
+        if (!contains(id)) {return EpochTime.NO_DATE;}
         return hashmap.get(id).getRelease();
     }
 
@@ -808,7 +858,7 @@ public class Movies implements IMovies {
         if (size() == 0) { return new int[0]; }
 
         CustomList<Integer> movieids = new CustomList<>();
-        for (Integer movieid : hashmap.getKeySet()) {
+        for (int movieid : hashmap.getKeys()) {
             for (int i = 0; i < 3; i++) {
                 if (hashmap.get(movieid).getData(i).contains(searchTerm) && !movieids.contains(movieid)) {
                     movieids.add(movieid);
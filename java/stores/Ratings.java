@@ -2,6 +2,7 @@ package stores;
 
 import java.util.Calendar;
 import interfaces.IRatings;
+import interfaces.IRatingsListener;
 import structures.*;
 
 public class Ratings implements IRatings {
@@ -13,9 +14,10 @@ public class Ratings implements IRatings {
         private int userId;
         private int movieId;
         private float rating;
-        private Calendar timestamp;
+        //epoch seconds rather than a Calendar, which saves a large mutable object per rating
+        private long timestamp;
  
-        public Rating(int userId, int movieId, float rating, Calendar timestamp) {
+        public Rating(int userId, int movieId, float rating, long timestamp) {
             this.userId = userId;
             this.movieId = movieId;
             this.rating = rating;
@@ -26,9 +28,13 @@ public class Ratings implements IRatings {
             return rating;
         }
  
-        public Calendar getTimestamp() {
+        public long getEpochSecond() {
             return timestamp;
         }
+
+        public Calendar getTimestamp() {
+            return EpochTime.fromEpochSecond(timestamp);
+        }
  
         public String toString() {
           return "{" + getRating() + " : " + getTimestamp() + "}";
@@ -37,19 +43,132 @@ public class Ratings implements IRatings {
     }
     //------------------------------------------------end of nested ratings class 
  
+
+    //-----------------------------------------------nested aggregate class 
+    /*
+     * Running totals over a set of ratings, updated in O(1) as ratings come and go. Alongside the sum and count a small
+     * histogram of half-star buckets (0 to 5 stars) is kept, which is what lets the minimum and maximum be maintained under
+     * removal: they are found by scanning the 11 buckets rather than every rating.
+     */
+    public class Aggregate {
+
+        private double sum;
+        private int count;
+        private int[] histogram = new int[11];
+
+        private int bucket(float rating) {
+            return Math.max(0, Math.min(10, Math.round(rating * 2)));
+        }
+
+        public void add(float rating) {
+            sum += rating;
+            count++;
+            histogram[bucket(rating)]++;
+        }
+
+        public void remove(float rating) {
+            sum -= rating;
+            count--;
+            histogram[bucket(rating)]--;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        public float getAverage() {
+            if (count == 0) {
+                return 0;
+            }
+            return (float) (sum / count);
+        }
+
+        public float getMin() {
+            for (int i = 0; i < histogram.length; i++) {
+                if (histogram[i] > 0) {
+                    return i / 2.0f;
+                }
+            }
+            return 0;
+        }
+
+        public float getMax() {
+            for (int i = histogram.length - 1; i >= 0; i--) {
+                if (histogram[i] > 0) {
+                    return i / 2.0f;
+                }
+            }
+            return 0;
+        }
+
+    }
+    //------------------------------------------------end of nested aggregate class 
+
  
+    //------------------------------------------------nested watch class
+    //a listener together with the average rating it wants to hear about movies crossing
+    private class Watch {
+
+        private float threshold;
+        private IRatingsListener listener;
+
+        private Watch(float threshold, IRatingsListener listener) {
+            this.threshold = threshold;
+            this.listener = listener;
+        }
+
+    }
+    //------------------------------------------------end of nested watch class
+
     private static final int CAPACITY = 10000;
     private int size;
 
     /*
      * I chose against the implementation of having two hashmaps for a nested hashmap that had the best memory efficiency to time ratio, in contrast to concatting both
      * ids to oneanother that would decrease the time efficiency and require more memory. With this implementation, each rating can be get in found in O(1) since they are indexed.
+     * Most movies only have a handful of ratings, so the inner map is a CompactIntMap that stays a small sorted array until it
+     * outgrows CompactIntMap.PROMOTE_THRESHOLD, rather than a full hash table per movie.
      */
-    private HashMap<Integer, HashMap<Integer, Rating>> outer_hashmap;
+    private IntObjectHashMap<CompactIntMap<Rating>> outer_hashmap;
+
+    //secondary index of the movie ids each user has rated, kept in step with outer_hashmap by add and remove,
+    //so a per-user query only visits that user's own ratings instead of every rating in the store
+    private IntObjectHashMap<IntList> user_index;
+
+    //running sum, count, min and max per movie and per user, so averages are read rather than recomputed
+    private IntObjectHashMap<Aggregate> movie_aggregates;
+    private IntObjectHashMap<Aggregate> user_aggregates;
+
+    //movies ranked by number of ratings and users by number of ratings given, updated on every add and remove
+    private CountLeaderboard movie_leaderboard;
+    private CountLeaderboard user_leaderboard;
+
+    //every rating in time order, plus the same per movie, so range queries binary search straight to the window
+    private TimeSortedIndex time_index;
+    private IntObjectHashMap<TimeSortedIndex> movie_time_index;
+
+    //bumped by every successful add, remove and set, so cached results computed from the ratings can tell they are stale
+    private int mod_count;
+
+    //listeners told when a movie's average crosses their threshold
+    private CustomList<Watch> watches;
  
     public Ratings(int capacity) {
-        outer_hashmap = new HashMap<>(capacity);
+        outer_hashmap = new IntObjectHashMap<>(capacity);
+        user_index = new IntObjectHashMap<>(capacity);
+        movie_aggregates = new IntObjectHashMap<>(capacity);
+        user_aggregates = new IntObjectHashMap<>(capacity);
+        movie_leaderboard = new CountLeaderboard(capacity);
+        user_leaderboard = new CountLeaderboard(capacity);
+        time_index = new TimeSortedIndex();
+        movie_time_index = new IntObjectHashMap<>(capacity);
         this.size = 0;
+        this.mod_count = 0;
+        this.watches = new CustomList<>();
     } 
  
     public Ratings() {
@@ -63,13 +182,29 @@ public class Ratings implements IRatings {
     }
 
     public boolean add(int userID, int movieID, float rating, Calendar timestamp) {
+        return add(userID, movieID, rating, EpochTime.toEpochSecond(timestamp));
+    }
+
+    public boolean add(int userID, int movieID, float rating, long timestamp) {
+        boolean[] before = averagesAbove(movieID);
         Rating r = new Rating(userID, movieID, rating, timestamp);
         if (!containsMovie(movieID)) {
-            outer_hashmap.put(movieID, new HashMap<>(CAPACITY));
+            outer_hashmap.put(movieID, new CompactIntMap<>());
         } 
         boolean added = outer_hashmap.get(movieID).put(userID, r);
         if (added) {
+            if (!user_index.containsKey(userID)) {
+                user_index.put(userID, new IntList());
+            }
+            user_index.get(userID).add(movieID);
+            aggregate(movie_aggregates, movieID).add(rating);
+            aggregate(user_aggregates, userID).add(rating);
+            movie_leaderboard.increment(movieID);
+            user_leaderboard.increment(userID);
+            indexTime(movieID, r);
             size++;
+            mod_count++;
+            notifyCrossings(movieID, before);
         }
         return added;
     }
@@ -78,97 +213,193 @@ public class Ratings implements IRatings {
         if (!containsMovie(movieID)) {
             return false;
         }
+        boolean[] before = averagesAbove(movieID);
+        Rating old = outer_hashmap.get(movieID).get(userID);
         boolean removed = outer_hashmap.get(movieID).remove(userID);
         if (removed) {
+            discard(movie_aggregates, movieID, old.getRating());
+            discard(user_aggregates, userID, old.getRating());
+            movie_leaderboard.decrement(movieID);
+            user_leaderboard.decrement(userID);
+            unindexTime(movieID, old);
+            IntList movies = user_index.get(userID);
+            movies.remove(movieID);
+            if (movies.isEmpty()) {
+                user_index.remove(userID);
+            }
             size--;
+            mod_count++;
+            notifyCrossings(movieID, before);
         }
         return removed;
     }
  
 
     public boolean set(int userID, int movieID, float rating, Calendar timestamp) {
+        return set(userID, movieID, rating, EpochTime.toEpochSecond(timestamp));
+    }
+
+    public boolean set(int userID, int movieID, float rating, long timestamp) {
         Rating r = new Rating(userID, movieID, rating, timestamp);
         if (containsMovie(movieID)) {
-            return outer_hashmap.get(movieID).replace(userID, r);
+            boolean[] before = averagesAbove(movieID);
+            Rating old = outer_hashmap.get(movieID).get(userID);
+            boolean replaced = outer_hashmap.get(movieID).replace(userID, r);
+            if (replaced) {
+                movie_aggregates.get(movieID).remove(old.getRating());
+                movie_aggregates.get(movieID).add(rating);
+                user_aggregates.get(userID).remove(old.getRating());
+                user_aggregates.get(userID).add(rating);
+                unindexTime(movieID, old);
+                indexTime(movieID, r);
+                mod_count++;
+                notifyCrossings(movieID, before);
+            }
+            return replaced;
         } 
         return add(userID, movieID, rating, timestamp);
     }
- 
 
-    public float[] getRatingsBetween(Calendar start, Calendar end) {
-        
-        if (size() == 0) {
-            return new float[0];
-        }
+    /**
+     * Registers a listener to be told whenever a movie's average rating crosses a threshold, so that anything built on
+     * which movies are rated highly can be kept up to date one movie at a time
+     * 
+     * @param threshold The average rating to watch; a movie with no ratings counts as below it
+     * @param listener  The listener to notify
+     */
+    public void addAverageListener(float threshold, IRatingsListener listener) {
+        watches.add(new Watch(threshold, listener));
+    }
 
-        CustomList<Float> ratings = new CustomList<>();
-        for (Integer movieId : outer_hashmap.getKeySet()) {
-            for (Float r : getMovieRatingsBetween(movieId, start, end)) {
-                ratings.add(r);
+    public void removeAverageListener(IRatingsListener listener) {
+        for (Watch watch : watches) {
+            if (watch.listener == listener) {
+                watches.remove(watch);
+                return;
             }
         }
+    }
+
+    private boolean isAbove(int movieID, float threshold) {
+        Aggregate aggregate = movie_aggregates.get(movieID);
+        return aggregate != null && aggregate.getCount() > 0 && aggregate.getAverage() >= threshold;
+    }
 
-        float[] answer = new float[ratings.size()]; 
+    //which side of each watched threshold the movie is on before a change; null when nobody is listening
+    private boolean[] averagesAbove(int movieID) {
+        if (watches.isEmpty()) {
+            return null;
+        }
+        boolean[] above = new boolean[watches.size()];
         int i = 0;
-        for (Float r : ratings ) {
-            answer[i] = r;
+        for (Watch watch : watches) {
+            above[i] = isAbove(movieID, watch.threshold);
             i++;
         }
+        return above;
+    }
 
-        return answer;
+    private void notifyCrossings(int movieID, boolean[] before) {
+        if (before == null) {
+            return;
+        }
+        int i = 0;
+        for (Watch watch : watches) {
+            boolean after = isAbove(movieID, watch.threshold);
+            if (after != before[i]) {
+                watch.listener.averageCrossed(movieID, after);
+            }
+            i++;
+        }
     }
 
-    public float[] getMovieRatingsBetween(int movieID, Calendar start, Calendar end) {
+    private Aggregate aggregate(IntObjectHashMap<Aggregate> aggregates, int id) {
+        Aggregate aggregate = aggregates.get(id);
+        if (aggregate == null) {
+            aggregate = new Aggregate();
+            aggregates.put(id, aggregate);
+        }
+        return aggregate;
+    }
 
-        if (!containsMovie(movieID) || size() == 0) {
-            return new float[0];
+    private void indexTime(int movieID, Rating r) {
+        long time = r.getEpochSecond();
+        TimeSortedIndex index = movie_time_index.get(movieID);
+        if (index == null) {
+            //a single movie's ratings are few enough to re-sort on the next query after every change
+            index = new TimeSortedIndex(0);
+            movie_time_index.put(movieID, index);
         }
-        
-        if (containsMovie(movieID)) {
-            CustomList<Integer> userids = outer_hashmap.get(movieID).getKeySet();
-            CustomList<Float> rs = new CustomList<>();
-            for (Integer key : userids) {
-                Rating r = outer_hashmap.get(movieID).get(key);
-                if (r.getTimestamp().after(start) && r.getTimestamp().before(end)) {
-                    rs.add(r.getRating());
-                }
-                
-            }
-            int j = 0;
-            float[] array = new float[rs.size()];
-            for (Float r : rs ) {
-                array[j] = r;
-            }
+        index.add(time, r.getRating());
+        time_index.add(time, r.getRating());
+    }
 
-            return array;
+    private void unindexTime(int movieID, Rating r) {
+        long time = r.getEpochSecond();
+        TimeSortedIndex index = movie_time_index.get(movieID);
+        index.remove(time, r.getRating());
+        if (index.isEmpty()) {
+            movie_time_index.remove(movieID);
         }
+        time_index.remove(time, r.getRating());
+    }
 
-        return new float[0];
+    private void discard(IntObjectHashMap<Aggregate> aggregates, int id, float rating) {
+        Aggregate aggregate = aggregates.get(id);
+        aggregate.remove(rating);
+        if (aggregate.getCount() == 0) {
+            aggregates.remove(id);
+        }
+    }
+ 
+
+    public float[] getRatingsBetween(Calendar start, Calendar end) {
+        return getRatingsBetween(EpochTime.startSecond(start), EpochTime.endSecond(end));
+    }
+
+    public float[] getRatingsBetween(long start, long end) {
+        
+        if (size() == 0) {
+            return new float[0];
+        }
+
+        return time_index.between(start, end);
+    }
+
+    public float[] getMovieRatingsBetween(int movieID, Calendar start, Calendar end) {
+        return getMovieRatingsBetween(movieID, EpochTime.startSecond(start), EpochTime.endSecond(end));
+    }
+
+    public float[] getMovieRatingsBetween(int movieID, long start, long end) {
+
+        TimeSortedIndex index = movie_time_index.get(movieID);
+        if (index == null) {
+            return new float[0];
+        }
+        
+        return index.between(start, end);
     }
  
     public float[] getUserRatingsBetween(int userID, Calendar start, Calendar end) {
+        return getUserRatingsBetween(userID, EpochTime.startSecond(start), EpochTime.endSecond(end));
+    }
+
+    public float[] getUserRatingsBetween(int userID, long start, long end) {
         
         if (size() == 0) {
             return new float[0];
         }
 
-        float[] ratings = getUserRatings(userID);
-        if (ratings == null || ratings.length == 0) {
+        IntList movieIds = user_index.get(userID);
+        if (movieIds == null) {
             return new float[0];
         }
         
         CustomList<Float> ratings_list = new CustomList<>();
-
-        CustomList<Integer> movieIds = outer_hashmap.getKeySet();
-        for (Integer moviekey : movieIds) {
-            CustomList<Integer> userIds = outer_hashmap.get(moviekey).getKeySet();
-            for (Integer userkey : userIds) {
-                if (userkey == userID) {
-                    Rating r = outer_hashmap.get(moviekey).get(userkey);
-                    if (r.getTimestamp().after(start) && r.getTimestamp().before(end)) {
-                        ratings_list.add(r.getRating());
-                    }
-                }
+        for (int i = 0; i < movieIds.size(); i++) {
+            Rating r = outer_hashmap.get(movieIds.get(i)).get(userID);
+            if (r.getEpochSecond() > start && r.getEpochSecond() < end) {
+                ratings_list.add(r.getRating());
             }
         }
 
@@ -176,6 +407,7 @@ public class Ratings implements IRatings {
         float[] array = new float[ratings_list.size()];
         for (Float r : ratings_list ) {
             array[j] = r;
+            j++;
         }
 
         return array;
@@ -187,10 +419,10 @@ public class Ratings implements IRatings {
         }
         
         if (containsMovie(movieID)) {
-            CustomList<Integer> userids = outer_hashmap.get(movieID).getKeySet();
+            int[] userids = outer_hashmap.get(movieID).getKeys();
             float[] ratings = new float[outer_hashmap.get(movieID).size()];
             int i = 0;
-            for (Integer key : userids) {
+            for (int key : userids) {
                 float r = outer_hashmap.get(movieID).get(key).getRating();
                 ratings[i] = r;
                 i++;
@@ -208,160 +440,115 @@ public class Ratings implements IRatings {
             return new float[0];
         }
 
-        //linked list 
-        CustomList<Float> ratings_list = new CustomList<>();
-
-        CustomList<Integer> movieIds = outer_hashmap.getKeySet();
-        for (Integer moviekey : movieIds) {
-            CustomList<Integer> userIds = outer_hashmap.get(moviekey).getKeySet();
-            for (Integer userkey : userIds) {
-                if (userkey == userID ) {
-                    Float r = outer_hashmap.get(moviekey).get(userkey).getRating();
-                    ratings_list.add(r);
-                }
-            }
-        }
-
-        int i = 0;
-        float [] array = new float[ratings_list.size()];
-        for (Float element : ratings_list ) {
-            array[i] = element;
-            i++;
+        IntList movieIds = user_index.get(userID);
+        if (movieIds == null) {
+            return new float[0];
         }
 
-        if (array == null || array.length == 0) {
-            return new float[0];
+        float [] array = new float[movieIds.size()];
+        for (int i = 0; i < movieIds.size(); i++) {
+            array[i] = outer_hashmap.get(movieIds.get(i)).get(userID).getRating();
         }
         
         return array;
     }
 
     public float getMovieAverageRatings(int movieID) {
-        if (!containsMovie(movieID)) {
+        Aggregate aggregate = movie_aggregates.get(movieID);
+        if (aggregate == null) {
             return 0;
         }
- 
-        float[] array = getMovieRatings(movieID);
-        float sum = 0.0f;
-        for (int i = 0; i < array.length; i++ ) {
-            sum += array[i];
-        } 
-        
-        return sum / (float)array.length;
+        return aggregate.getAverage();
     }
 
     public float getUserAverageRatings(int userID) {
-
-        if (size() == 0) {
+        Aggregate aggregate = user_aggregates.get(userID);
+        if (aggregate == null) {
             return 0;
         }
- 
-        float[] array = getUserRatings(userID);
-        float sum = 0.0f;
-        for (int i = 0; i < array.length; i++ ) {
-            sum += array[i];
-        } 
+        return aggregate.getAverage();
+    }
 
-        if (array == null || array.length == 0) {
-            return 0;
-        }
-        
-        return sum / (float) array.length;
+    //returns the running totals for a movie, or null if the movie has no ratings
+    public Aggregate getMovieAggregate(int movieID) {
+        return movie_aggregates.get(movieID);
     }
 
-    public int[] getTopMovies(int num) {
-        
-        if (size() == 0 || num == 0) {
-            return new int[0];
-        } 
+    //returns the running totals for a user, or null if the user has no ratings
+    public Aggregate getUserAggregate(int userID) {
+        return user_aggregates.get(userID);
+    }
 
-        int[][] movies = new int[size()][2];
-        CustomList<Integer> movieIds = outer_hashmap.getKeySet();
-        
-        int i = 0; 
-        for (Integer key : movieIds) {
-            CustomList<Integer> userIds = outer_hashmap.get(key).getKeySet();
-            movies[i][0] = userIds.size();
-            movies[i][1] = key;
-            i++;
-        }
-        if (movies.length == 0) { return new int[0]; }
-        sortDescending(movies);
+    public int getMovieRatingCount(int movieID) {
+        Aggregate aggregate = movie_aggregates.get(movieID);
+        return aggregate == null ? 0 : aggregate.getCount();
+    }
 
-        int[] answer = new int[num];
-        if (i < num) {
+    public int getUserRatingCount(int userID) {
+        Aggregate aggregate = user_aggregates.get(userID);
+        return aggregate == null ? 0 : aggregate.getCount();
+    }
 
-            answer = new int[i];
-        } 
+    public float getMovieMinRating(int movieID) {
+        Aggregate aggregate = movie_aggregates.get(movieID);
+        return aggregate == null ? 0 : aggregate.getMin();
+    }
 
-        for (int j = 0; j < num; j++) {
-            answer[j] = movies[j][1];
-        }
+    public float getMovieMaxRating(int movieID) {
+        Aggregate aggregate = movie_aggregates.get(movieID);
+        return aggregate == null ? 0 : aggregate.getMax();
+    }
 
-        return answer;
+    public float getUserMinRating(int userID) {
+        Aggregate aggregate = user_aggregates.get(userID);
+        return aggregate == null ? 0 : aggregate.getMin();
     }
-    
-    public static void sortDescending(int[][] arr) {
-        for (int i = 0; i < arr.length - 1; i++) {
-            for (int j = i + 1; j < arr.length; j++) {
-                if (arr[j][0] > arr[i][0]) {
-                    int[] temp = arr[i];
-                    arr[i] = arr[j];
-                    arr[j] = temp;
-                }
-            }
-        }
+
+    public float getUserMaxRating(int userID) {
+        Aggregate aggregate = user_aggregates.get(userID);
+        return aggregate == null ? 0 : aggregate.getMax();
     }
-    
 
-    public int[] getMostRatedUsers(int num) {
+    public int[] getTopMovies(int num) {
         
-        if (size() == 0 || num == 0) {
+        if (size() == 0 || num <= 0) {
             return new int[0];
         } 
 
-        int[][] users = new int[size()][2];
-        int i = 0; 
-        CustomList<Integer> movieIds = outer_hashmap.getKeySet();
-        for (Integer moviekey : movieIds) {
-            CustomList<Integer> userIds = outer_hashmap.get(moviekey).getKeySet();
-            for (Integer userkey : userIds) {
-                int count = 0;
-                for (int index = 0; index < i; index++ ) {
-                    if (users[index][1] == userkey) {
-                        users[index][0] += getUserRatings(userkey).length;
-                        count++;
-                    }
-                }
-                if (count == 0) {
-                    users[i][0] = getUserRatings(userkey).length;
-                    users[i][1] = userkey;
-                }
-                i++;
-            }
-        }
-
-        if (users.length == 0) { return new int[0]; }
-        sortDescending(users);
+        //the leaderboard is already in order, so this only copies the first num movie ids
+        return movie_leaderboard.top(num);
+    }
 
-        int[] answer = new int[num];
-        if (i < num) {
-            answer = new int[i];
+    public int[] getMostRatedUsers(int num) {
+        
+        if (size() == 0 || num <= 0) {
+            return new int[0];
         } 
 
-        for (int j = 0; j < num; j++) {
-            answer[j] = users[j][1];
-        }
-
-        return answer;
+        return user_leaderboard.top(num);
     }
  
+    public int getModCount() {
+        return mod_count;
+    }
+
     public int size() {
         return size;
     }
 
-    public CustomList<Integer> getAllMovies() {
-        return outer_hashmap.getKeySet();
+    public int[] getAllMovies() {
+        return outer_hashmap.getKeys();
+    }
+
+    public boolean containsUser(int userID) {
+        return user_index.containsKey(userID);
+    }
+
+    public int[] getUserMovies(int userID) {
+        if (!containsUser(userID)) {
+            return new int[0];
+        }
+        return user_index.get(userID).toArray();
     }
  
 }
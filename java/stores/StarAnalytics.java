@@ -0,0 +1,235 @@
+package stores;
+
+import interfaces.ICreditsListener;
+import interfaces.IRatingsListener;
+import structures.*;
+
+/*
+ * Works out the star and superstar cast members for one Credits and one Ratings. A star has appeared in at least three
+ * films that each have an average rating of 4 or more, and a superstar is a star who shares at least two films with
+ * another star. Stars are found in one pass over the rated films, counting each cast member's 4+ films in a hashed
+ * counter; superstars then only look at the stars' own co-stars. Both sets are kept until a credit or rating is added,
+ * removed or changed, which the mod counts of the two stores reveal, so repeated visits to the screens that show them
+ * cost nothing.
+ *
+ * A live instance goes further and never recomputes. It keeps the counters and, for every star, the other stars it
+ * shares two or more films with, then listens to both stores: a movie's average crossing 4, or a film's credits being
+ * added or removed, only touches the counters and links of the cast of that one film.
+ */
+public class StarAnalytics implements IRatingsListener, ICreditsListener {
+
+    private static final float STAR_RATING = 4.0f;
+    private static final int STAR_FILMS = 3;
+
+    private Credits credits;
+    private Ratings ratings;
+    private boolean live;
+
+    private int credits_mod_count;
+    private int ratings_mod_count;
+    private int[] stars;
+    private int[] superstars;
+
+    //live state: each cast member's number of 4+ films, the stars, and the ascending ids of the stars each star shares
+    //at least two films with; a star with any such link is a superstar
+    private IntIntHashMap top_films;
+    private IntIntHashMap star_set;
+    private IntObjectHashMap<IntList> links;
+
+    public StarAnalytics(Credits credits, Ratings ratings, boolean live) {
+        this.credits = credits;
+        this.ratings = ratings;
+        this.live = live;
+        if (live) {
+            top_films = new IntIntHashMap();
+            star_set = new IntIntHashMap();
+            links = new IntObjectHashMap<>();
+            for (int filmid : ratings.getAllMovies()) {
+                if (isTopFilm(filmid)) {
+                    for (int castid : credits.getCastIDs(filmid)) {
+                        countTopFilm(castid, 1);
+                    }
+                }
+            }
+            ratings.addAverageListener(STAR_RATING, this);
+            credits.addListener(this);
+        }
+    }
+
+    public StarAnalytics(Credits credits, Ratings ratings) {
+        this(credits, ratings, false);
+    }
+
+    public Ratings getRatings() {
+        return ratings;
+    }
+
+    public boolean isLive() {
+        return live;
+    }
+
+    //stops a live instance listening to the stores; its sets are no longer kept up to date afterwards
+    public void detach() {
+        if (live) {
+            ratings.removeAverageListener(this);
+            credits.removeListener(this);
+        }
+    }
+
+    //recomputes both sets if either store has changed since they were last worked out
+    private void refresh() {
+        if (stars != null && credits_mod_count == credits.getModCount() && ratings_mod_count == ratings.getModCount()) {
+            return;
+        }
+
+        IntIntHashMap top_films = new IntIntHashMap();
+        IntList star_list = new IntList();
+        for (int filmid : ratings.getAllMovies()) {
+            if (!isTopFilm(filmid)) {
+                continue;
+            }
+            for (int castid : credits.getCastIDs(filmid)) {
+                //a cast member becomes a star exactly once, on the film that takes their count to the threshold
+                if (top_films.increment(castid, 1) == STAR_FILMS) {
+                    star_list.add(castid);
+                }
+            }
+        }
+        stars = star_list.toArray();
+
+        IntIntHashMap star_set = new IntIntHashMap(stars.length);
+        for (int castid : stars) {
+            star_set.put(castid, 1);
+        }
+        IntList superstar_list = new IntList();
+        for (int castid : stars) {
+            if (credits.sharesTwoFilmsWithStar(castid, star_set)) {
+                superstar_list.add(castid);
+            }
+        }
+        superstars = superstar_list.toArray();
+
+        credits_mod_count = credits.getModCount();
+        ratings_mod_count = ratings.getModCount();
+    }
+
+    private boolean isTopFilm(int filmid) {
+        return ratings.getMovieAverageRatings(filmid) >= STAR_RATING;
+    }
+
+    //the ids of every star, copied so the cached set cannot be changed by the caller
+    public int[] getStars() {
+        if (live) {
+            return star_set.getKeys();
+        }
+        refresh();
+        return stars.clone();
+    }
+
+    public int[] getSuperstars() {
+        if (live) {
+            IntList answer = new IntList();
+            for (int castid : star_set.getKeys()) {
+                if (!links.get(castid).isEmpty()) {
+                    answer.add(castid);
+                }
+            }
+            return answer.toArray();
+        }
+        refresh();
+        return superstars.clone();
+    }
+
+    //moves a cast member's 4+ film count by delta, promoting or demoting them as it crosses the star threshold
+    private void countTopFilm(int castid, int delta) {
+        int count = top_films.increment(castid, delta);
+        if (delta > 0 && count == STAR_FILMS) {
+            promote(castid);
+        } else if (delta < 0 && count == STAR_FILMS - 1) {
+            demote(castid);
+        }
+        if (count == 0) {
+            top_films.remove(castid);
+        }
+    }
+
+    //makes castid a star and links it to every star it already shares two or more films with
+    private void promote(int castid) {
+        star_set.put(castid, 1);
+        links.put(castid, new IntList());
+        IntIntHashMap shared = new IntIntHashMap();
+        for (int filmid : credits.getFilmIDsFromCastID(castid)) {
+            for (int costar : credits.getCastIDs(filmid)) {
+                if (costar != castid && star_set.containsKey(costar) && shared.increment(costar, 1) == 2) {
+                    link(castid, costar);
+                }
+            }
+        }
+    }
+
+    private void demote(int castid) {
+        IntList linked = links.get(castid);
+        for (int i = 0; i < linked.size(); i++) {
+            links.get(linked.get(i)).removeSorted(castid);
+        }
+        links.remove(castid);
+        star_set.remove(castid);
+    }
+
+    private void link(int castIDA, int castIDB) {
+        links.get(castIDA).addSorted(castIDB);
+        links.get(castIDB).addSorted(castIDA);
+    }
+
+    private void unlink(int castIDA, int castIDB) {
+        links.get(castIDA).removeSorted(castIDB);
+        links.get(castIDB).removeSorted(castIDA);
+    }
+
+    @Override
+    public void averageCrossed(int movieID, boolean above) {
+        for (int castid : credits.getCastIDs(movieID)) {
+            countTopFilm(castid, above ? 1 : -1);
+        }
+    }
+
+    @Override
+    public void filmAdded(int filmID, int[] castIDs) {
+        //a new film can take two stars to their second shared film
+        for (int i = 0; i < castIDs.length; i++) {
+            for (int j = 0; j < i; j++) {
+                int a = castIDs[i];
+                int b = castIDs[j];
+                if (star_set.containsKey(a) && star_set.containsKey(b) && !links.get(a).containsSorted(b)
+                        && credits.sharedFilmCount(a, b) >= 2) {
+                    link(a, b);
+                }
+            }
+        }
+        if (isTopFilm(filmID)) {
+            for (int castid : castIDs) {
+                countTopFilm(castid, 1);
+            }
+        }
+    }
+
+    @Override
+    public void filmRemoved(int filmID, int[] castIDs) {
+        if (isTopFilm(filmID)) {
+            for (int castid : castIDs) {
+                countTopFilm(castid, -1);
+            }
+        }
+        for (int i = 0; i < castIDs.length; i++) {
+            for (int j = 0; j < i; j++) {
+                int a = castIDs[i];
+                int b = castIDs[j];
+                if (star_set.containsKey(a) && star_set.containsKey(b) && links.get(a).containsSorted(b)
+                        && credits.sharedFilmCount(a, b) < 2) {
+                    unlink(a, b);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+package structures;
+
+/*
+ * An int keyed map for the common case of holding only a few entries. Up to PROMOTE_THRESHOLD entries are kept in a
+ * sorted int array with a parallel value array that grows from a couple of slots, and looked up by binary search.
+ * Once it grows past the threshold the entries are moved into an IntObjectHashMap, so large maps still get O(1) lookups
+ * while the many small maps never pay for a hash table.
+ */
+public class CompactIntMap<V> {
+
+    private static final int INITIAL_SLOTS = 2;
+    public static final int PROMOTE_THRESHOLD = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    //null until the map has been promoted; once set all entries live here instead of the arrays above
+    private IntObjectHashMap<V> table;
+
+    public CompactIntMap() {
+        this.keys = new int[INITIAL_SLOTS];
+        this.values = new Object[INITIAL_SLOTS];
+        this.size = 0;
+    }
+
+    //binary search over the sorted keys; returns the index of key, or -(insertion point) - 1 when absent
+    private int indexOf(int key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else if (keys[mid] > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    public int size() {
+        return table == null ? size : table.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean isPromoted() {
+        return table != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (table != null) {
+            return table.get(key);
+        }
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    public boolean containsKey(int key) {
+        if (table != null) {
+            return table.containsKey(key);
+        }
+        return indexOf(key) >= 0;
+    }
+
+    //an existing key is left untouched and false is returned, as with HashMap.put
+    public boolean put(int key, V value) {
+        if (table != null) {
+            return table.put(key, value);
+        }
+        int index = indexOf(key);
+        if (index >= 0) {
+            return false;
+        }
+        if (size == PROMOTE_THRESHOLD) {
+            promote();
+            return table.put(key, value);
+        }
+
+        int insert = -(index + 1);
+        if (size == keys.length) {
+            int length = Math.min(keys.length * 2, PROMOTE_THRESHOLD);
+            int[] tmpKeys = new int[length];
+            Object[] tmpValues = new Object[length];
+            System.arraycopy(keys, 0, tmpKeys, 0, size);
+            System.arraycopy(values, 0, tmpValues, 0, size);
+            keys = tmpKeys;
+            values = tmpValues;
+        }
+        System.arraycopy(keys, insert, keys, insert + 1, size - insert);
+        System.arraycopy(values, insert, values, insert + 1, size - insert);
+        keys[insert] = key;
+        values[insert] = value;
+        size++;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void promote() {
+        table = new IntObjectHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            table.put(keys[i], (V) values[i]);
+        }
+        keys = null;
+        values = null;
+        size = 0;
+    }
+
+    public boolean replace(int key, V value) {
+        if (table != null) {
+            return table.replace(key, value);
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        values[index] = value;
+        return true;
+    }
+
+    public boolean remove(int key) {
+        if (table != null) {
+            return table.remove(key);
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        values[size] = null;
+        return true;
+    }
+
+    //returns a copy of the keys; while small these are in ascending order
+    public int[] getKeys() {
+        if (table != null) {
+            return table.getKeys();
+        }
+        int[] answer = new int[size];
+        System.arraycopy(keys, 0, answer, 0, size);
+        return answer;
+    }
+
+}
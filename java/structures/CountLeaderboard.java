@@ -0,0 +1,175 @@
+package structures;
+
+/*
+ * A live ranking of ids by a count that only ever changes by one at a time (e.g. the number of ratings a movie has).
+ * The ids are kept in one array ordered by count, highest first, so ids with equal counts form a contiguous block and
+ * first[c] / last[c] record where the block for count c starts and ends. Incrementing an id swaps it with the first id
+ * of its block and moves that block boundary by one; decrementing swaps it with the last id of its block. Both are O(1),
+ * and reading the top num ids is a copy of the front of the array, O(num) whatever the number of ids.
+ */
+public class CountLeaderboard {
+
+    private int[] order;
+    private int[] counts;
+    private int size;
+
+    private IntIntHashMap position;
+
+    private int[] first;
+    private int[] last;
+
+    public CountLeaderboard(int expectedSize) {
+        int capacity = Math.max(expectedSize, 4);
+        order = new int[capacity];
+        counts = new int[capacity];
+        position = new IntIntHashMap(capacity);
+        first = new int[16];
+        last = new int[16];
+        size = 0;
+    }
+
+    public CountLeaderboard() {
+        this(16);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        return position.containsKey(id);
+    }
+
+    //returns the count of id, or 0 if it is not on the board
+    public int countOf(int id) {
+        int p = position.get(id);
+        return p == -1 ? 0 : counts[p];
+    }
+
+    private void swap(int i, int j) {
+        if (i == j) {
+            return;
+        }
+        int id = order[i];
+        order[i] = order[j];
+        order[j] = id;
+        int count = counts[i];
+        counts[i] = counts[j];
+        counts[j] = count;
+        position.replace(order[i], i);
+        position.replace(order[j], j);
+    }
+
+    private void ensureCount(int count) {
+        if (count >= first.length) {
+            int length = Math.max(count + 1, first.length * 2);
+            int[] tmpFirst = new int[length];
+            int[] tmpLast = new int[length];
+            System.arraycopy(first, 0, tmpFirst, 0, first.length);
+            System.arraycopy(last, 0, tmpLast, 0, last.length);
+            first = tmpFirst;
+            last = tmpLast;
+        }
+    }
+
+    //raises the count of id by one, adding it with a count of one if it is not on the board yet
+    public void increment(int id) {
+        int p = position.get(id);
+        if (p == -1) {
+            if (size == order.length) {
+                int[] tmpOrder = new int[order.length * 2];
+                int[] tmpCounts = new int[counts.length * 2];
+                System.arraycopy(order, 0, tmpOrder, 0, size);
+                System.arraycopy(counts, 0, tmpCounts, 0, size);
+                order = tmpOrder;
+                counts = tmpCounts;
+            }
+            //every id on the board has a count of at least one, so a new id belongs at the very end
+            order[size] = id;
+            counts[size] = 1;
+            position.put(id, size);
+            if (size > 0 && counts[size - 1] == 1) {
+                last[1] = size;
+            } else {
+                first[1] = size;
+                last[1] = size;
+            }
+            size++;
+            return;
+        }
+
+        int c = counts[p];
+        ensureCount(c + 1);
+        int s = first[c];
+        swap(p, s);
+        counts[s] = c + 1;
+        if (last[c] != s) {
+            first[c] = s + 1;
+        }
+        if (s > 0 && counts[s - 1] == c + 1) {
+            last[c + 1] = s;
+        } else {
+            first[c + 1] = s;
+            last[c + 1] = s;
+        }
+    }
+
+    //lowers the count of id by one, taking it off the board when the count reaches zero; returns false if id is absent
+    public boolean decrement(int id) {
+        int p = position.get(id);
+        if (p == -1) {
+            return false;
+        }
+
+        int c = counts[p];
+        int e = last[c];
+        swap(p, e);
+        if (first[c] != e) {
+            last[c] = e - 1;
+        }
+
+        if (c == 1) {
+            //the block for a count of one is always at the end of the array, so the id can simply be dropped
+            position.remove(id);
+            size--;
+            return true;
+        }
+
+        counts[e] = c - 1;
+        if (e + 1 < size && counts[e + 1] == c - 1) {
+            first[c - 1] = e;
+        } else {
+            first[c - 1] = e;
+            last[c - 1] = e;
+        }
+        return true;
+    }
+
+    //returns the num ids with the highest counts, highest first; ids with equal counts are in no particular order
+    public int[] top(int num) {
+        int length = Math.max(0, Math.min(num, size));
+        int[] answer = new int[length];
+        System.arraycopy(order, 0, answer, 0, length);
+        return answer;
+    }
+
+    //returns every id whose count is at least min, found by binary searching the descending counts
+    public int[] atLeast(int min) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (counts[mid] >= min) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return top(low);
+    }
+
+}
@@ -0,0 +1,314 @@
+package structures;
+
+/*
+ * An unweighted, read-only graph in compressed sparse row form. Node i's neighbours are
+ * neighbors[offsets[i]] .. neighbors[offsets[i + 1] - 1], so the whole graph is two flat int arrays sized by the number
+ * of nodes and edges, rather than the n x n cells of an AdjacencyMatrix, and a breadth first search walks each
+ * neighbour range directly instead of scanning a full matrix row per node. Nodes are addressed by index internally and
+ * by id from outside, with an IntIntHashMap translating between the two.
+ */
+public class CsrGraph {
+
+    //------nested search class
+    //one side of a bidirectional search: a queue holding the current frontier, and the parent and depth of each node
+    private static class Search {
+
+        private int[] queue;
+        private int[] parent;
+        private int[] depth;
+        private int head;
+        private int tail;
+        private int level;
+
+        //the best meeting found while expanding this side: from is on this side, to on the other
+        private int best;
+        private int from;
+        private int to;
+
+        private Search(int n, int start) {
+            queue = new int[n];
+            parent = new int[n];
+            depth = new int[n];
+            for (int i = 0; i < n; i++) {
+                parent[i] = -1;
+            }
+            queue[tail++] = start;
+            parent[start] = start;
+        }
+
+        private int frontier() {
+            return tail - head;
+        }
+
+    }
+    //------end of nested search class
+
+    private int[] ids;
+    private IntIntHashMap index;
+    private int[] offsets;
+    private int[] neighbors;
+
+    /**
+     * Builds the graph from one list of neighbour indices per node. Duplicate entries and self loops in a list are
+     * dropped, so the lists can be filled without checking what is already there.
+     *
+     * @param ids       The id of each node, by index
+     * @param adjacency The neighbour indices of each node, by index; a null list means no neighbours
+     */
+    public CsrGraph(int[] ids, IntList[] adjacency) {
+        int n = ids.length;
+        indexIds(ids);
+
+        //seen[j] == i + 1 marks j as already kept for row i, which dedups each row in one pass without sorting it
+        int[] seen = new int[n];
+        int total = 0;
+        for (int i = 0; i < n; i++) {
+            if (adjacency[i] == null) {
+                continue;
+            }
+            for (int k = 0; k < adjacency[i].size(); k++) {
+                int j = adjacency[i].get(k);
+                if (j != i && seen[j] != i + 1) {
+                    seen[j] = i + 1;
+                    total++;
+                }
+            }
+        }
+
+        offsets = new int[n + 1];
+        neighbors = new int[total];
+        seen = new int[n];
+        int next = 0;
+        for (int i = 0; i < n; i++) {
+            offsets[i] = next;
+            if (adjacency[i] == null) {
+                continue;
+            }
+            for (int k = 0; k < adjacency[i].size(); k++) {
+                int j = adjacency[i].get(k);
+                if (j != i && seen[j] != i + 1) {
+                    seen[j] = i + 1;
+                    neighbors[next] = j;
+                    next++;
+                }
+            }
+        }
+        offsets[n] = next;
+    }
+
+    /**
+     * Takes a snapshot of a WeightedIntGraph, keeping which nodes are connected but not the weights.
+     *
+     * @param graph The graph to copy
+     */
+    public CsrGraph(WeightedIntGraph graph) {
+        indexIds(graph.getNodes());
+        int n = ids.length;
+
+        offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] = offsets[i] + graph.degree(ids[i]);
+        }
+        neighbors = new int[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            int e = offsets[i];
+            for (int neighbor : graph.neighborsOf(ids[i])) {
+                neighbors[e] = index.get(neighbor);
+                e++;
+            }
+        }
+    }
+
+    private void indexIds(int[] ids) {
+        this.ids = ids;
+        this.index = new IntIntHashMap(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            index.put(ids[i], i);
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    //the number of directed edges, i.e. twice the number of undirected ones
+    public int edgeCount() {
+        return neighbors.length;
+    }
+
+    //returns the index of the node with this id, or -1 if it is not in the graph
+    public int indexOf(int id) {
+        return index.get(id);
+    }
+
+    public int idAt(int node) {
+        return ids[node];
+    }
+
+    public int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    //the flat arrays themselves, shared without copying so ParallelBfs can walk the neighbour ranges directly
+    int[] getOffsets() {
+        return offsets;
+    }
+
+    int[] getNeighbors() {
+        return neighbors;
+    }
+
+    //returns the indices of the neighbours of node
+    public int[] neighborsOf(int node) {
+        int[] answer = new int[degree(node)];
+        System.arraycopy(neighbors, offsets[node], answer, 0, answer.length);
+        return answer;
+    }
+
+    /**
+     * Finds a shortest path between two nodes with a breadth first search.
+     *
+     * @param sourceID The id of the starting node
+     * @param targetID The id of the finishing node
+     * @return The ids along the path, from sourceID to targetID inclusive; empty if either id is not in the graph or
+     *         there is no path
+     */
+    public int[] findShortestPath(int sourceID, int targetID) {
+        int source = indexOf(sourceID);
+        int target = indexOf(targetID);
+        if (source == -1 || target == -1) {
+            return new int[0];
+        }
+        if (source == target) {
+            return new int[] { sourceID };
+        }
+
+        int n = ids.length;
+        //parent doubles as the visited set: -1 until a node is first reached
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = -1;
+        }
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        parent[source] = source;
+
+        while (head < tail) {
+            int node = queue[head++];
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                int neighbor = neighbors[e];
+                if (parent[neighbor] != -1) {
+                    continue;
+                }
+                parent[neighbor] = node;
+                //a node's parent is fixed the first time it is reached, so the search can stop here rather than when
+                //the target is dequeued
+                if (neighbor == target) {
+                    return pathTo(parent, source, target);
+                }
+                queue[tail++] = neighbor;
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * Finds a shortest path between two nodes by searching from both ends at once, always expanding whichever frontier
+     * is smaller by one whole level. The two searches meet after each has covered about half the distance, so in a
+     * small-world graph far fewer nodes are visited than by a search from the source alone.
+     *
+     * @param sourceID The id of the starting node
+     * @param targetID The id of the finishing node
+     * @param maxDepth The most edges the path may have
+     * @return The ids along the path, from sourceID to targetID inclusive; empty if either id is not in the graph or
+     *         there is no path of at most maxDepth edges
+     */
+    public int[] findShortestPath(int sourceID, int targetID, int maxDepth) {
+        int source = indexOf(sourceID);
+        int target = indexOf(targetID);
+        if (source == -1 || target == -1) {
+            return new int[0];
+        }
+        if (source == target) {
+            return new int[] { sourceID };
+        }
+
+        Search forward = new Search(ids.length, source);
+        Search backward = new Search(ids.length, target);
+        //every path not found yet has more edges than the two searches have covered between them
+        while (forward.frontier() > 0 && backward.frontier() > 0 && forward.level + backward.level < maxDepth) {
+            if (forward.frontier() <= backward.frontier()) {
+                if (expandLevel(forward, backward)) {
+                    return joinPath(forward, forward.from, backward, forward.to);
+                }
+            } else if (expandLevel(backward, forward)) {
+                return joinPath(forward, backward.to, backward, backward.from);
+            }
+        }
+        return new int[0];
+    }
+
+    /*
+     * Expands every node in the current frontier of side. An edge into a node the other side has already reached is a
+     * candidate meeting, and the shortest candidate of the whole level is kept: stopping at the first one could miss a
+     * shorter path through a node the other side reached at a lower depth.
+     */
+    private boolean expandLevel(Search side, Search other) {
+        side.best = -1;
+        int end = side.tail;
+        for (; side.head < end; side.head++) {
+            int node = side.queue[side.head];
+            for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                int neighbor = neighbors[e];
+                if (other.parent[neighbor] != -1) {
+                    int length = side.depth[node] + 1 + other.depth[neighbor];
+                    if (side.best == -1 || length < side.best) {
+                        side.best = length;
+                        side.from = node;
+                        side.to = neighbor;
+                    }
+                } else if (side.parent[neighbor] == -1) {
+                    side.parent[neighbor] = node;
+                    side.depth[neighbor] = side.depth[node] + 1;
+                    side.queue[side.tail++] = neighbor;
+                }
+            }
+        }
+        side.level++;
+        return side.best != -1;
+    }
+
+    //the ids from the source to a forward node, then from its neighbouring backward node on to the target
+    private int[] joinPath(Search forward, int forwardNode, Search backward, int backwardNode) {
+        int[] answer = new int[forward.depth[forwardNode] + backward.depth[backwardNode] + 2];
+        int current = forwardNode;
+        for (int i = forward.depth[forwardNode]; i >= 0; i--) {
+            answer[i] = ids[current];
+            current = forward.parent[current];
+        }
+        current = backwardNode;
+        for (int i = forward.depth[forwardNode] + 1; i < answer.length; i++) {
+            answer[i] = ids[current];
+            current = backward.parent[current];
+        }
+        return answer;
+    }
+
+    //walks the parent links back from target and returns the ids in order from source
+    private int[] pathTo(int[] parent, int source, int target) {
+        int length = 1;
+        for (int current = target; current != source; current = parent[current]) {
+            length++;
+        }
+        int[] answer = new int[length];
+        int current = target;
+        for (int i = length - 1; i >= 0; i--) {
+            answer[i] = ids[current];
+            current = parent[current];
+        }
+        return answer;
+    }
+
+}
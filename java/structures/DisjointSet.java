@@ -0,0 +1,127 @@
+package structures;
+
+/*
+ * Union-find over int ids, for telling in near constant time whether two ids are connected at all. Each id is given an
+ * index on first use; parent[] links every index towards the root of its set, union by size keeps the trees shallow, and
+ * find() halves the path it walks so later finds are shorter still. Sets can only be merged, never split, so a structure
+ * that needs to forget a connection has to be cleared and rebuilt.
+ */
+public class DisjointSet {
+
+    private IntIntHashMap index;
+    private int[] ids;
+    private int[] parent;
+    private int[] size;
+    private int count;
+    private int components;
+
+    public DisjointSet(int expectedSize) {
+        int capacity = Math.max(expectedSize, 4);
+        index = new IntIntHashMap(capacity);
+        ids = new int[capacity];
+        parent = new int[capacity];
+        size = new int[capacity];
+        count = 0;
+        components = 0;
+    }
+
+    public DisjointSet() {
+        this(16);
+    }
+
+    public void clear() {
+        index.clear();
+        count = 0;
+        components = 0;
+    }
+
+    //the number of ids
+    public int size() {
+        return count;
+    }
+
+    //the number of separate sets
+    public int componentCount() {
+        return components;
+    }
+
+    public boolean contains(int id) {
+        return index.containsKey(id);
+    }
+
+    //adds id as a set of its own; returns false if it is already present
+    public boolean add(int id) {
+        if (index.containsKey(id)) {
+            return false;
+        }
+        if (count == ids.length) {
+            int[] tmpIds = new int[ids.length * 2];
+            int[] tmpParent = new int[parent.length * 2];
+            int[] tmpSize = new int[size.length * 2];
+            System.arraycopy(ids, 0, tmpIds, 0, count);
+            System.arraycopy(parent, 0, tmpParent, 0, count);
+            System.arraycopy(size, 0, tmpSize, 0, count);
+            ids = tmpIds;
+            parent = tmpParent;
+            size = tmpSize;
+        }
+        index.put(id, count);
+        ids[count] = id;
+        parent[count] = count;
+        size[count] = 1;
+        count++;
+        components++;
+        return true;
+    }
+
+    //the root index of the set holding index i, halving the path on the way
+    private int root(int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    //merges the sets holding a and b, adding either id if it is new; returns false if they were already in one set
+    public boolean union(int a, int b) {
+        add(a);
+        add(b);
+        int rootA = root(index.get(a));
+        int rootB = root(index.get(b));
+        if (rootA == rootB) {
+            return false;
+        }
+        if (size[rootA] < size[rootB]) {
+            int tmp = rootA;
+            rootA = rootB;
+            rootB = tmp;
+        }
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        components--;
+        return true;
+    }
+
+    public boolean connected(int a, int b) {
+        int i = index.get(a);
+        int j = index.get(b);
+        if (i == -1 || j == -1) {
+            return false;
+        }
+        return root(i) == root(j);
+    }
+
+    //returns the id at the root of the set holding id, which names the set, or -1 if id is not present
+    public int componentID(int id) {
+        int i = index.get(id);
+        return i == -1 ? -1 : ids[root(i)];
+    }
+
+    //returns the number of ids in the set holding id, or 0 if id is not present
+    public int componentSize(int id) {
+        int i = index.get(id);
+        return i == -1 ? 0 : size[root(i)];
+    }
+
+}
@@ -1,11 +1,24 @@
 package structures;
 
 public class HashMap<K, V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    //least number of old buckets moved into the new table on each operation while a resize is in progress
+    private static final int REHASH_STEP = 4;
  
     private int capacity;
     private int size;
     private CustomList<Entry<K, V>>[] array;
     private CustomList<K> keys;
+
+    //resize state; when resizable is false the map keeps the fixed number of buckets it was created with
+    private boolean resizable;
+    private float loadFactor;
+    private CustomList<Entry<K, V>>[] oldArray;
+    private int rehashIndex;
+    private int rehashBuckets;
  
     //-------------------------------------nested entry class 
     public static class Entry<K, V> {
@@ -31,8 +44,7 @@ public class HashMap<K, V> {
     }
     //---------------------------------end of nested entry class 
  
-    // Constructor for HashMap
-    @SuppressWarnings("unchecked")
+    // Constructor for HashMap with a fixed number of buckets
     public HashMap(int capacity) {
       
         if (capacity == 0 ) {
@@ -43,14 +55,106 @@ public class HashMap<K, V> {
         }
       
         this.size = 0;
+        this.resizable = false;
+        this.array = newTable(this.capacity);
+        keys = new CustomList<>();
+    }
         
-        this.array = new CustomList[this.capacity];
+    /*
+     * Constructor for a resizable HashMap. expectedSize is a hint of how many entries will be stored, and the table is
+     * sized so that many entries fit without a resize. Once size passes capacity * loadFactor the table doubles, and the
+     * old buckets are moved across a few at a time on later operations rather than all at once inside a single put.
+     */
+    public HashMap(int expectedSize, float loadFactor) {
+        if (loadFactor <= 0 || Float.isNaN(loadFactor)) {
+            throw new IllegalArgumentException("Illegal load factor: " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        this.capacity = Math.max((int) Math.ceil(Math.max(expectedSize, 1) / loadFactor), 1);
+        this.size = 0;
+        this.resizable = true;
+        this.array = newTable(this.capacity);
+        keys = new CustomList<>();
+    }
         
-        for (int i = 0; i < this.capacity; i++) {
-            array[i] = new CustomList<Entry<K, V>>();
+    public HashMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    //buckets are only created when something is put into them, so a large or freshly doubled table costs one array allocation
+    @SuppressWarnings("unchecked")
+    private CustomList<Entry<K, V>>[] newTable(int length) {
+        return new CustomList[length];
+    }
+
+    private static int indexFor(Object key, int length) {
+        return (key.hashCode() & 0x7fffffff) % length;
+    }
+
+    private CustomList<Entry<K, V>> bucket(int index) {
+        if (array[index] == null) {
+            array[index] = new CustomList<Entry<K, V>>();
         }
+        return array[index];
+    }
         
-        keys = new CustomList<>();
+    //finds the entry for key in either the current table or, while resizing, the part of the old table not yet moved
+    private Entry<K, V> findEntry(K key) {
+        Entry<K, V> entry = findIn(array, key);
+        if (entry == null && oldArray != null) {
+            entry = findIn(oldArray, key);
+        }
+        return entry;
+    }
+
+    private Entry<K, V> findIn(CustomList<Entry<K, V>>[] table, K key) {
+        CustomList<Entry<K, V>> list = table[indexFor(key, table.length)];
+        if (list == null) {
+            return null;
+        }
+        for (Entry<K, V> entry : list) {
+            if (entry.getKey().equals(key)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    //moves up to the given number of buckets from the old table into the current one
+    private void rehashStep(int buckets) {
+        if (oldArray == null) {
+            return;
+        }
+        int moved = 0;
+        while (rehashIndex < oldArray.length && moved < buckets) {
+            CustomList<Entry<K, V>> list = oldArray[rehashIndex];
+            if (list != null) {
+                for (Entry<K, V> entry : list) {
+                    bucket(indexFor(entry.getKey(), capacity)).add(entry);
+                }
+                oldArray[rehashIndex] = null;
+            }
+            rehashIndex++;
+            moved++;
+        }
+        if (rehashIndex == oldArray.length) {
+            oldArray = null;
+        }
+    }
+
+    private void startResize() {
+        //a previous resize must be finished before the table can be doubled again; the step below sees to it that it
+        //always is, so this only moves anything if that bound was not met
+        rehashStep(Integer.MAX_VALUE);
+        oldArray = array;
+        rehashIndex = 0;
+        capacity = capacity * 2;
+        array = newTable(capacity);
+
+        //every put moves at least rehashBuckets old buckets, and at least gap more puts come before the next doubling,
+        //so the step is the old table size over that gap; with a small load factor the gap is small and the step grows
+        long gap = Math.max((long) (capacity * loadFactor) - size, 1);
+        rehashBuckets = (int) Math.max(REHASH_STEP, (oldArray.length + gap - 1) / gap);
     }
  
     public int size() {
@@ -61,92 +165,92 @@ public class HashMap<K, V> {
         return size == 0;
     }
  
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isResizable() {
+        return resizable;
+    }
+
     public void clear() {
         for (int i = 0; i < capacity; i++) {
-            array[i].clear();
+            array[i] = null;
         }
+        oldArray = null;
+        keys.clear();
         size = 0;
     }
  
     public V get(K key) {
-        int index = (int) key % capacity;
-        CustomList<Entry<K, V>> list = array[index];
- 
-        for (Entry<K, V> entry : list) {
-            if (entry.getKey().equals(key)) {
-                return entry.getValue();
-            }
+        rehashStep(rehashBuckets);
+        Entry<K, V> entry = findEntry(key);
+        if (entry == null) {
+            return null;
         }
- 
-        return null;
+        return entry.getValue();
     }
  
     public boolean put(K key, V value) {
-        int index = (int) key % capacity;
- 
-        for (Entry<K, V> entry : array[index]) {
-            if (entry.getKey().equals(key)) {
-                return false;
-            }
+        rehashStep(rehashBuckets);
+        if (findEntry(key) != null) {
+            return false;
         }
  
-        array[index].add(new Entry<K, V>(key, value));
+        bucket(indexFor(key, capacity)).add(new Entry<K, V>(key, value));
         keys.add(key);
         size++;
+
+        if (resizable && size > capacity * loadFactor) {
+            startResize();
+        }
         return true;
     }
  
     public boolean replace(K key, V value) {
-        int index = (int) key % capacity;
- 
-        for (Entry<K, V> entry : array[index]) {
-            if (entry.getKey().equals(key)) {
-                entry.setValue(value);
-                return true;
-            }
+        rehashStep(rehashBuckets);
+        Entry<K, V> entry = findEntry(key);
+        if (entry == null) {
+            return false;
         }
-        
-        return false;
+        entry.setValue(value);
+        return true;
     }
  
     public boolean containsKey(K key) {
-      
-        int index = (int) key % capacity;
- 
-        for (Entry<K, V> entry : array[index]) {
-            if (entry.getKey().equals(key)) {
-                return true;
-            }
+        rehashStep(rehashBuckets);
+        return findEntry(key) != null;
+    }
+
+    public boolean remove(K key) {
+        rehashStep(rehashBuckets);
+        if (removeFrom(array, key) || (oldArray != null && removeFrom(oldArray, key))) {
+            keys.remove(key);
+            size--;
+            return true;
         }
- 
         return false;
     }
- 
-    public boolean remove(K key) {
-        int index = (int) key % capacity;
-        CustomList<Entry<K, V>> list = array[index];
-        
+
+    private boolean removeFrom(CustomList<Entry<K, V>>[] table, K key) {
+        CustomList<Entry<K, V>> list = table[indexFor(key, table.length)];
+        if (list == null) {
+            return false;
+        }
         for (Entry<K, V> entry : list) {
             if (entry.getKey().equals(key)) {
                 list.remove(entry);
-                keys.remove(key);
-                size--;
                 return true;
             }
         }
- 
         return false;
     }
  
     @Override
     public String toString() {
       System.out.println(" [ ");
-      for (int i = 0; i < capacity; i++) {
- 
-              for (Entry<K, V> entry : array[i]) {
-                  System.out.print(" " + entry.getKey() + " : rating = " + entry.getValue());
-              }
-              System.out.println(" ");
+      for (K key : keys) {
+          System.out.println(" " + key + " : rating = " + findEntry(key).getValue());
       }
       System.out.print(" ] ");
       return " ";
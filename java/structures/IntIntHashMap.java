@@ -0,0 +1,186 @@
+package structures;
+
+/*
+ * The primitive int to int counterpart of IntObjectHashMap: keys and values in flat parallel arrays with linear probing,
+ * used for id to index lookups and per-id counters where boxing every value would be wasteful.
+ */
+public class IntIntHashMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+    private int threshold;
+
+    public IntIntHashMap(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR);
+        int capacity = 2;
+        while (capacity < needed && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    public IntIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int slotFor(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int find(int key) {
+        int slot = slotFor(key);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < used.length; i++) {
+            used[i] = false;
+        }
+        size = 0;
+    }
+
+    //returns the value stored for key, or -1 if the key is not in the map
+    public int get(int key) {
+        return getOrDefault(key, -1);
+    }
+
+    public int getOrDefault(int key, int defaultValue) {
+        int slot = find(key);
+        return slot == -1 ? defaultValue : values[slot];
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) != -1;
+    }
+
+    //an existing key is left untouched and false is returned, as with HashMap.put
+    public boolean put(int key, int value) {
+        int slot = slotFor(key);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        insertAt(slot, key, value);
+        return true;
+    }
+
+    private void insertAt(int slot, int key, int value) {
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        if (size > threshold) {
+            resize(keys.length << 1);
+        }
+    }
+
+    public boolean replace(int key, int value) {
+        int slot = find(key);
+        if (slot == -1) {
+            return false;
+        }
+        values[slot] = value;
+        return true;
+    }
+
+    //adds delta to the value for key (a missing key counts as 0) and returns the new value
+    public int increment(int key, int delta) {
+        int slot = slotFor(key);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        insertAt(slot, key, delta);
+        return delta;
+    }
+
+    public boolean remove(int key) {
+        int slot = find(key);
+        if (slot == -1) {
+            return false;
+        }
+
+        //backward shift deletion, as in IntObjectHashMap
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (used[next]) {
+            int home = slotFor(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[gap] = false;
+        size--;
+        return true;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slotFor(oldKeys[i]);
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    //returns a copy of all the keys currently stored, in table order
+    public int[] getKeys() {
+        int[] answer = new int[size];
+        int i = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                answer[i] = keys[slot];
+                i++;
+            }
+        }
+        return answer;
+    }
+
+}
@@ -0,0 +1,184 @@
+package structures;
+
+/*
+ * A growable list of primitive ints backed by a single array, used for postings lists (e.g. the movie ids a user has
+ * rated) where a CustomList<Integer> would allocate a node and a boxed Integer per element. The sorted methods keep the
+ * list in ascending order so membership can be tested with a binary search.
+ */
+public class IntList {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private int[] array;
+    private int size;
+
+    public IntList(int capacity) {
+        this.array = new int[Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    public IntList() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > array.length) {
+            int[] tmp = new int[Math.max(needed, array.length * 2)];
+            System.arraycopy(array, 0, tmp, 0, size);
+            array = tmp;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new ArrayIndexOutOfBoundsException("index > size: " + index + " >= " + size);
+        }
+        return array[index];
+    }
+
+    public void set(int index, int value) {
+        if (index >= size) {
+            throw new ArrayIndexOutOfBoundsException("index > size: " + index + " >= " + size);
+        }
+        array[index] = value;
+    }
+
+    public void add(int value) {
+        ensureCapacity(size + 1);
+        array[size] = value;
+        size++;
+    }
+
+    //returns the index of the first occurrence of value, or -1 if it is not in the list
+    public int indexOf(int value) {
+        for (int i = 0; i < size; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(int value) {
+        return indexOf(value) != -1;
+    }
+
+    public int removeAt(int index) {
+        int removed = get(index);
+        System.arraycopy(array, index + 1, array, index, size - index - 1);
+        size--;
+        return removed;
+    }
+
+    //removes the first occurrence of value, keeping the order of the remaining elements
+    public boolean remove(int value) {
+        int index = indexOf(value);
+        if (index == -1) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    //binary search over a list kept in ascending order; returns the index of value, or -(insertion point) - 1
+    public int binarySearch(int value) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (array[mid] < value) {
+                low = mid + 1;
+            } else if (array[mid] > value) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    public boolean containsSorted(int value) {
+        return binarySearch(value) >= 0;
+    }
+
+    //inserts value at its place in an ascending list; returns false if it was already present
+    public boolean addSorted(int value) {
+        int index = binarySearch(value);
+        if (index >= 0) {
+            return false;
+        }
+        int insert = -(index + 1);
+        ensureCapacity(size + 1);
+        System.arraycopy(array, insert, array, insert + 1, size - insert);
+        array[insert] = value;
+        size++;
+        return true;
+    }
+
+    public boolean removeSorted(int value) {
+        int index = binarySearch(value);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    //sorts the list into ascending order with a bottom-up merge sort, so the sorted methods can be used on it afterwards
+    public void sort() {
+        int[] src = array;
+        int[] dst = new int[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size; low += 2 * width) {
+                int mid = Math.min(low + width, size);
+                int high = Math.min(low + 2 * width, size);
+                int i = low;
+                int j = mid;
+                for (int k = low; k < high; k++) {
+                    if (i < mid && (j >= high || src[i] <= src[j])) {
+                        dst[k] = src[i++];
+                    } else {
+                        dst[k] = src[j++];
+                    }
+                }
+            }
+            int[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != array) {
+            System.arraycopy(src, 0, array, 0, size);
+        }
+    }
+
+    public int[] toArray() {
+        int[] answer = new int[size];
+        System.arraycopy(array, 0, answer, 0, size);
+        return answer;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder ret = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                ret.append(", ");
+            }
+            ret.append(array[i]);
+        }
+        return ret.append("]").toString();
+    }
+
+}
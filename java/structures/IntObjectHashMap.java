@@ -0,0 +1,193 @@
+package structures;
+
+/*
+ * A hashmap specialised for primitive int keys. Rather than an array of linked lists holding boxed Entry objects,
+ * the keys and values are kept in flat parallel arrays and collisions are resolved with linear probing (open addressing),
+ * so a lookup is a handful of array reads with no allocation and no boxing of the key.
+ */
+public class IntObjectHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private Object[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+    private int threshold;
+
+    //the expected size is used to pick a table large enough that no resizing is needed while loading that many keys
+    public IntObjectHashMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public IntObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR);
+        int capacity = 2;
+        while (capacity < needed && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    //spreads the bits of the key so that sequential ids do not all land in neighbouring slots
+    private int slotFor(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    //returns the slot holding key, or -1 if the key is not in the map
+    private int find(int key) {
+        int slot = slotFor(key);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < used.length; i++) {
+            used[i] = false;
+            values[i] = null;
+        }
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = find(key);
+        if (slot == -1) {
+            return null;
+        }
+        return (V) values[slot];
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) != -1;
+    }
+
+    //same contract as HashMap.put: an existing key is left untouched and false is returned
+    public boolean put(int key, V value) {
+        int slot = slotFor(key);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        if (size > threshold) {
+            resize(keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean replace(int key, V value) {
+        int slot = find(key);
+        if (slot == -1) {
+            return false;
+        }
+        values[slot] = value;
+        return true;
+    }
+
+    public boolean remove(int key) {
+        int slot = find(key);
+        if (slot == -1) {
+            return false;
+        }
+
+        //backward shift deletion: later entries of the same probe run are moved up into the gap,
+        //so no tombstones are left behind and lookups never have to skip over deleted slots
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (used[next]) {
+            int home = slotFor(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[gap] = false;
+        values[gap] = null;
+        size--;
+        return true;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slotFor(oldKeys[i]);
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    //returns a copy of all the keys currently stored, in table order
+    public int[] getKeys() {
+        int[] answer = new int[size];
+        int i = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                answer[i] = keys[slot];
+                i++;
+            }
+        }
+        return answer;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder ret = new StringBuilder("[");
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                if (ret.length() > 1) {
+                    ret.append(", ");
+                }
+                ret.append(keys[slot]).append(" : ").append(values[slot]);
+            }
+        }
+        return ret.append("]").toString();
+    }
+
+}
@@ -0,0 +1,127 @@
+package structures;
+
+/*
+ * A distance oracle over a CsrGraph built from a few landmark nodes, the ones with the highest degree. The distance from
+ * every landmark to every node is worked out once with a breadth first search and kept as one byte per node. For any two
+ * nodes u and v and a landmark L, the triangle inequality gives |d(L,u) - d(L,v)| <= d(u,v) <= d(L,u) + d(L,v), so the
+ * tightest bounds over all landmarks cost O(landmarks) to read. When they meet, that is the exact distance; otherwise a
+ * bidirectional search capped at the upper bound finds it.
+ */
+public class LandmarkIndex {
+
+    //stored for a node that a landmark cannot reach, and for one too far away to fit in a byte
+    private static final byte UNREACHABLE = -1;
+    private static final byte TOO_FAR = -2;
+
+    private CsrGraph graph;
+    private int[] landmarks;
+    private byte[][] distances;
+
+    public LandmarkIndex(CsrGraph graph, int count) {
+        this.graph = graph;
+
+        TopK best = new TopK(count);
+        for (int node = 0; node < graph.size(); node++) {
+            best.offer(graph.degree(node), node);
+        }
+        landmarks = best.toSortedIds();
+
+        distances = new byte[landmarks.length][];
+        ParallelBfs search = new ParallelBfs(graph);
+        for (int l = 0; l < landmarks.length; l++) {
+            search.run(graph.idAt(landmarks[l]));
+            int[] fromLandmark = search.getDistances();
+            byte[] row = new byte[fromLandmark.length];
+            for (int node = 0; node < row.length; node++) {
+                if (fromLandmark[node] == -1) {
+                    row[node] = UNREACHABLE;
+                } else if (fromLandmark[node] > Byte.MAX_VALUE) {
+                    row[node] = TOO_FAR;
+                } else {
+                    row[node] = (byte) fromLandmark[node];
+                }
+            }
+            distances[l] = row;
+        }
+    }
+
+    //the ids of the landmarks, highest degree first
+    public int[] getLandmarkIDs() {
+        int[] answer = new int[landmarks.length];
+        for (int l = 0; l < landmarks.length; l++) {
+            answer[l] = graph.idAt(landmarks[l]);
+        }
+        return answer;
+    }
+
+    /**
+     * Gets the smallest upper bound the landmarks give on the distance between two nodes.
+     *
+     * @param idA The id of one node
+     * @param idB The id of the other node
+     * @return The bound in edges, or -1 if no landmark reaches both nodes
+     */
+    public int upperBound(int idA, int idB) {
+        int a = graph.indexOf(idA);
+        int b = graph.indexOf(idB);
+        if (a == -1 || b == -1) {
+            return -1;
+        }
+        if (a == b) {
+            return 0;
+        }
+        int best = -1;
+        for (byte[] row : distances) {
+            if (row[a] >= 0 && row[b] >= 0 && (best == -1 || row[a] + row[b] < best)) {
+                best = row[a] + row[b];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the largest lower bound the landmarks give on the distance between two nodes.
+     *
+     * @param idA The id of one node
+     * @param idB The id of the other node
+     * @return The bound in edges, or -1 if a landmark shows the nodes are not connected at all
+     */
+    public int lowerBound(int idA, int idB) {
+        int a = graph.indexOf(idA);
+        int b = graph.indexOf(idB);
+        if (a == -1 || b == -1) {
+            return -1;
+        }
+        int best = 0;
+        for (byte[] row : distances) {
+            if (row[a] >= 0 && row[b] >= 0) {
+                best = Math.max(best, Math.abs(row[a] - row[b]));
+            } else if ((row[a] >= 0 && row[b] == UNREACHABLE) || (row[a] == UNREACHABLE && row[b] >= 0)) {
+                //the landmark is in the component of one node and not the other
+                return -1;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the exact distance between two nodes, from the bounds alone when they agree.
+     *
+     * @param idA The id of one node
+     * @param idB The id of the other node
+     * @return The distance in edges, or -1 if either node is not in the graph or they are not connected
+     */
+    public int distance(int idA, int idB) {
+        int lower = lowerBound(idA, idB);
+        if (lower == -1) {
+            return -1;
+        }
+        int upper = upperBound(idA, idB);
+        if (upper == lower) {
+            return upper;
+        }
+        int[] path = graph.findShortestPath(idA, idB, upper == -1 ? Integer.MAX_VALUE : upper);
+        return path.length - 1;
+    }
+
+}
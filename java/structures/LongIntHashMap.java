@@ -0,0 +1,157 @@
+package structures;
+
+/*
+ * An open addressing hashmap from primitive long keys to non-negative int values, meant for mapping a packed composite
+ * key to a row index. Empty slots are marked by a value of -1, so besides the two flat arrays no per-slot flag or object
+ * is stored. The table is sized to the exact number of slots needed rather than the next power of two, which matters
+ * when it holds tens of millions of keys.
+ */
+public class LongIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int EMPTY = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int capacity;
+    private int size;
+    private int threshold;
+
+    public LongIntHashMap(int expectedSize) {
+        allocate((int) Math.min(Integer.MAX_VALUE - 8L, (long) Math.ceil(Math.max(expectedSize, 2) / LOAD_FACTOR) + 1));
+    }
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    private void allocate(int capacity) {
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            values[i] = EMPTY;
+        }
+        this.threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    //mixes the key and maps the high 32 bits of the result onto [0, capacity) with a multiply rather than a modulo
+    private int slotFor(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) (((h >>> 32) * capacity) >>> 32);
+    }
+
+    private int next(int slot) {
+        slot++;
+        return slot == capacity ? 0 : slot;
+    }
+
+    private int find(long key) {
+        int slot = slotFor(key);
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = next(slot);
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    //returns the value stored for key, or -1 if the key is not in the map
+    public int get(long key) {
+        int slot = find(key);
+        return slot == -1 ? EMPTY : values[slot];
+    }
+
+    public boolean containsKey(long key) {
+        return find(key) != -1;
+    }
+
+    //value must be non-negative; an existing key is left untouched and false is returned
+    public boolean put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must be non-negative: " + value);
+        }
+        int slot = slotFor(key);
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = next(slot);
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        if (size > threshold) {
+            resize((int) Math.min(Integer.MAX_VALUE - 8L, capacity * 2L));
+        }
+        return true;
+    }
+
+    public boolean replace(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must be non-negative: " + value);
+        }
+        int slot = find(key);
+        if (slot == -1) {
+            return false;
+        }
+        values[slot] = value;
+        return true;
+    }
+
+    public boolean remove(long key) {
+        int slot = find(key);
+        if (slot == -1) {
+            return false;
+        }
+
+        //backward shift deletion, so the probe runs stay unbroken without tombstones
+        int gap = slot;
+        int next = next(gap);
+        while (values[next] != EMPTY) {
+            int home = slotFor(keys[next]);
+            int fromHome = next >= home ? next - home : next + capacity - home;
+            int fromGap = next >= gap ? next - gap : next + capacity - gap;
+            if (fromHome >= fromGap) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = next(next);
+        }
+        values[gap] = EMPTY;
+        size--;
+        return true;
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != EMPTY) {
+                int slot = slotFor(oldKeys[i]);
+                while (values[slot] != EMPTY) {
+                    slot = next(slot);
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+}
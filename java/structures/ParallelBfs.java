@@ -0,0 +1,160 @@
+package structures;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * A level-synchronous breadth first search from one node to every other node of a CsrGraph. Each level's frontier is
+ * split into chunks that are expanded in parallel on a fork/join pool, and a node is claimed by whichever chunk first
+ * sets its bit in a shared atomic bitmap, so every node is added to exactly one next frontier without locking. The chunks'
+ * discoveries are joined into the next frontier before the level after it starts, which keeps the distances exact.
+ * Distances and parents are indexed by node index in the graph (see CsrGraph.indexOf), with -1 for nodes that cannot be
+ * reached; the source is its own parent.
+ */
+public class ParallelBfs {
+
+    //frontiers with fewer nodes than this are expanded by a single task
+    private static final int CHUNK_SIZE = 1024;
+
+    private CsrGraph graph;
+    private ForkJoinPool pool;
+
+    private int[] distance;
+    private int[] parent;
+    private AtomicLongArray visited;
+    private IntList levelSizes;
+
+    //------nested expand class
+    //expands frontier[from..to) and returns the nodes it claimed for the next level
+    private class Expand extends RecursiveTask<IntList> {
+
+        private static final long serialVersionUID = 1L;
+
+        private int[] frontier;
+        private int from;
+        private int to;
+        private int level;
+
+        private Expand(int[] frontier, int from, int to, int level) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.level = level;
+        }
+
+        @Override
+        protected IntList compute() {
+            if (to - from <= CHUNK_SIZE) {
+                IntList next = new IntList();
+                int[] offsets = graph.getOffsets();
+                int[] neighbors = graph.getNeighbors();
+                for (int i = from; i < to; i++) {
+                    int node = frontier[i];
+                    for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                        int neighbor = neighbors[e];
+                        if (claim(neighbor)) {
+                            parent[neighbor] = node;
+                            distance[neighbor] = level + 1;
+                            next.add(neighbor);
+                        }
+                    }
+                }
+                return next;
+            }
+
+            int mid = (from + to) >>> 1;
+            Expand left = new Expand(frontier, from, mid, level);
+            left.fork();
+            IntList right = new Expand(frontier, mid, to, level).compute();
+            IntList next = left.join();
+            for (int i = 0; i < right.size(); i++) {
+                next.add(right.get(i));
+            }
+            return next;
+        }
+
+    }
+    //------end of nested expand class
+
+    public ParallelBfs(CsrGraph graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    public ParallelBfs(CsrGraph graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    //sets the bit for node, returning true only for the one caller that changed it from clear to set
+    private boolean claim(int node) {
+        int word = node >>> 6;
+        long bit = 1L << (node & 63);
+        while (true) {
+            long current = visited.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (visited.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Runs the search from a source node, replacing the results of any earlier run.
+     *
+     * @param sourceID The id of the node to search from
+     * @return FALSE if the source is not in the graph, in which case every node is left unreachable
+     */
+    public boolean run(int sourceID) {
+        int n = graph.size();
+        distance = new int[n];
+        parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            distance[i] = -1;
+            parent[i] = -1;
+        }
+        visited = new AtomicLongArray((n + 63) >>> 6);
+        levelSizes = new IntList();
+
+        int source = graph.indexOf(sourceID);
+        if (source == -1) {
+            return false;
+        }
+        claim(source);
+        distance[source] = 0;
+        parent[source] = source;
+
+        int[] frontier = { source };
+        int level = 0;
+        while (frontier.length > 0) {
+            levelSizes.add(frontier.length);
+            frontier = pool.invoke(new Expand(frontier, 0, frontier.length, level)).toArray();
+            level++;
+        }
+        return true;
+    }
+
+    //distance of each node from the source by node index, -1 if unreachable
+    public int[] getDistances() {
+        return distance;
+    }
+
+    //parent of each node on a shortest path from the source by node index, -1 if unreachable
+    public int[] getParents() {
+        return parent;
+    }
+
+    //the number of nodes at each distance from the source, starting with the source itself at distance 0
+    public int[] getLevelSizes() {
+        return levelSizes.toArray();
+    }
+
+    //returns the distance of the node with this id from the source, or -1 if it is unreachable or not in the graph
+    public int distanceTo(int id) {
+        int node = graph.indexOf(id);
+        return node == -1 ? -1 : distance[node];
+    }
+
+}
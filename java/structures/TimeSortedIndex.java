@@ -0,0 +1,254 @@
+package structures;
+
+/*
+ * (time, value) pairs kept in time order so that all values inside a time window can be found with two binary searches
+ * and one copy, O(log n + k), instead of testing every pair. New pairs are appended to a small unsorted pending buffer
+ * rather than inserted into the sorted arrays, which keeps bulk loading at O(1) per add; the buffer is sorted and merged
+ * into the main run the first time a query finds it has grown past the merge threshold, and until then is scanned
+ * directly. A small index can use a threshold of 0 so every query after a change sees fully sorted arrays.
+ *
+ * Removing a pair from the sorted run works the same way round: rather than shifting everything after it down, the pair
+ * is marked in a tombstone bitmap and skipped by queries, and the marked pairs are dropped by the next merge, which is
+ * run once either the pending adds or the tombstones pass the threshold. A removal therefore costs a binary search, not
+ * a copy of the whole run.
+ */
+public class TimeSortedIndex {
+
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int MERGE_THRESHOLD = 1024;
+
+    private long[] times;
+    private float[] values;
+    private int size;
+
+    //one bit per pair of the sorted run, set once the pair is removed; null while nothing is marked
+    private long[] removed;
+    private int removedCount;
+
+    private long[] pendingTimes;
+    private float[] pendingValues;
+    private int pendingSize;
+    private int mergeThreshold;
+
+    public TimeSortedIndex(int mergeThreshold) {
+        this.mergeThreshold = mergeThreshold;
+        times = new long[0];
+        values = new float[0];
+        pendingTimes = new long[INITIAL_CAPACITY];
+        pendingValues = new float[INITIAL_CAPACITY];
+    }
+
+    public TimeSortedIndex() {
+        this(MERGE_THRESHOLD);
+    }
+
+    public int size() {
+        return size - removedCount + pendingSize;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void add(long time, float value) {
+        if (pendingSize == pendingTimes.length) {
+            long[] tmpTimes = new long[pendingTimes.length * 2];
+            float[] tmpValues = new float[pendingValues.length * 2];
+            System.arraycopy(pendingTimes, 0, tmpTimes, 0, pendingSize);
+            System.arraycopy(pendingValues, 0, tmpValues, 0, pendingSize);
+            pendingTimes = tmpTimes;
+            pendingValues = tmpValues;
+        }
+        pendingTimes[pendingSize] = time;
+        pendingValues[pendingSize] = value;
+        pendingSize++;
+    }
+
+    //removes one pair with exactly this time and value; returns false if there is none
+    public boolean remove(long time, float value) {
+        //merging first keeps the scan of the pending buffer short even when no query has merged it since a bulk load
+        if (pendingSize > mergeThreshold) {
+            merge();
+        }
+        for (int i = 0; i < pendingSize; i++) {
+            if (pendingTimes[i] == time && pendingValues[i] == value) {
+                pendingSize--;
+                pendingTimes[i] = pendingTimes[pendingSize];
+                pendingValues[i] = pendingValues[pendingSize];
+                return true;
+            }
+        }
+        for (int i = firstAfter(time - 1); i < size && times[i] == time; i++) {
+            if (values[i] == value && !isRemoved(i)) {
+                if (removed == null) {
+                    removed = new long[(size + 63) >>> 6];
+                }
+                removed[i >>> 6] |= 1L << (i & 63);
+                removedCount++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isRemoved(int i) {
+        return removed != null && (removed[i >>> 6] & (1L << (i & 63))) != 0;
+    }
+
+    //index of the first sorted pair with a time strictly greater than time
+    private int firstAfter(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the values of all pairs with a time strictly between start and end.
+     *
+     * @param start The exclusive lower bound of the window
+     * @param end   The exclusive upper bound of the window
+     * @return The values in the window, in time order for everything already merged
+     */
+    public float[] between(long start, long end) {
+        if (pendingSize > mergeThreshold || removedCount > mergeThreshold) {
+            merge();
+        }
+        if (end <= start) {
+            return new float[0];
+        }
+
+        int from = firstAfter(start);
+        int to = firstAfter(end - 1);
+        int pending = 0;
+        for (int i = 0; i < pendingSize; i++) {
+            if (pendingTimes[i] > start && pendingTimes[i] < end) {
+                pending++;
+            }
+        }
+
+        int j;
+        float[] answer;
+        if (removedCount == 0) {
+            answer = new float[to - from + pending];
+            System.arraycopy(values, from, answer, 0, to - from);
+            j = to - from;
+        } else {
+            int live = 0;
+            for (int i = from; i < to; i++) {
+                if (!isRemoved(i)) {
+                    live++;
+                }
+            }
+            answer = new float[live + pending];
+            j = 0;
+            for (int i = from; i < to; i++) {
+                if (!isRemoved(i)) {
+                    answer[j] = values[i];
+                    j++;
+                }
+            }
+        }
+        for (int i = 0; i < pendingSize; i++) {
+            if (pendingTimes[i] > start && pendingTimes[i] < end) {
+                answer[j] = pendingValues[i];
+                j++;
+            }
+        }
+        return answer;
+    }
+
+    //sorts the pending buffer and merges it into the sorted run in one linear pass, dropping the removed pairs
+    private void merge() {
+        sort(pendingTimes, pendingValues, pendingSize);
+
+        long[] mergedTimes = new long[size - removedCount + pendingSize];
+        float[] mergedValues = new float[size - removedCount + pendingSize];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < size && j < pendingSize) {
+            if (isRemoved(i)) {
+                i++;
+                continue;
+            }
+            if (times[i] <= pendingTimes[j]) {
+                mergedTimes[k] = times[i];
+                mergedValues[k] = values[i];
+                i++;
+            } else {
+                mergedTimes[k] = pendingTimes[j];
+                mergedValues[k] = pendingValues[j];
+                j++;
+            }
+            k++;
+        }
+        for (; i < size; i++) {
+            if (!isRemoved(i)) {
+                mergedTimes[k] = times[i];
+                mergedValues[k] = values[i];
+                k++;
+            }
+        }
+        for (; j < pendingSize; j++, k++) {
+            mergedTimes[k] = pendingTimes[j];
+            mergedValues[k] = pendingValues[j];
+        }
+
+        times = mergedTimes;
+        values = mergedValues;
+        size = k;
+        removed = null;
+        removedCount = 0;
+        pendingTimes = new long[INITIAL_CAPACITY];
+        pendingValues = new float[INITIAL_CAPACITY];
+        pendingSize = 0;
+    }
+
+    //bottom-up merge sort of the parallel arrays by time; O(n log n) whatever the input order
+    private static void sort(long[] times, float[] values, int length) {
+        long[] srcTimes = times;
+        float[] srcValues = values;
+        long[] dstTimes = new long[length];
+        float[] dstValues = new float[length];
+
+        for (int width = 1; width < length; width *= 2) {
+            for (int low = 0; low < length; low += 2 * width) {
+                int mid = Math.min(low + width, length);
+                int high = Math.min(low + 2 * width, length);
+                int i = low;
+                int j = mid;
+                for (int k = low; k < high; k++) {
+                    if (i < mid && (j >= high || srcTimes[i] <= srcTimes[j])) {
+                        dstTimes[k] = srcTimes[i];
+                        dstValues[k] = srcValues[i];
+                        i++;
+                    } else {
+                        dstTimes[k] = srcTimes[j];
+                        dstValues[k] = srcValues[j];
+                        j++;
+                    }
+                }
+            }
+            long[] swapTimes = srcTimes;
+            float[] swapValues = srcValues;
+            srcTimes = dstTimes;
+            srcValues = dstValues;
+            dstTimes = swapTimes;
+            dstValues = swapValues;
+        }
+
+        if (srcTimes != times) {
+            System.arraycopy(srcTimes, 0, times, 0, length);
+            System.arraycopy(srcValues, 0, values, 0, length);
+        }
+    }
+
+}
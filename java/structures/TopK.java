@@ -0,0 +1,168 @@
+package structures;
+
+/*
+ * Top-K selection over primitive (score, id) pairs. An instance is a bounded binary min-heap of at most k pairs: offering
+ * n pairs costs O(n log k), and the heap root is always the weakest pair kept so far, so anything worse is rejected with
+ * one comparison. select() is the in-place alternative for when all the pairs are already in arrays, using a partial
+ * quickselect in expected O(n). In both, a higher score ranks first and equal scores are broken by the smaller id.
+ */
+public class TopK {
+
+    private int k;
+    private int[] scores;
+    private int[] ids;
+    private int size;
+
+    public TopK(int k) {
+        this.k = Math.max(k, 0);
+        this.scores = new int[this.k];
+        this.ids = new int[this.k];
+        this.size = 0;
+    }
+
+    //true when pair a ranks ahead of pair b
+    private static boolean better(int scoreA, int idA, int scoreB, int idB) {
+        return scoreA > scoreB || (scoreA == scoreB && idA < idB);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void offer(int score, int id) {
+        if (size < k) {
+            scores[size] = score;
+            ids[size] = id;
+            siftUp(size);
+            size++;
+        } else if (k > 0 && better(score, id, scores[0], ids[0])) {
+            scores[0] = score;
+            ids[0] = id;
+            siftDown(0, size);
+        }
+    }
+
+    private void swap(int i, int j) {
+        int score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!better(scores[parent], ids[parent], scores[i], ids[i])) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int length) {
+        while (true) {
+            int weakest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < length && better(scores[weakest], ids[weakest], scores[left], ids[left])) {
+                weakest = left;
+            }
+            if (right < length && better(scores[weakest], ids[weakest], scores[right], ids[right])) {
+                weakest = right;
+            }
+            if (weakest == i) {
+                return;
+            }
+            swap(i, weakest);
+            i = weakest;
+        }
+    }
+
+    //returns the ids kept, best first; the heap is emptied in the process
+    public int[] toSortedIds() {
+        int[] answer = new int[size];
+        //repeatedly moving the root (the weakest pair) to the end leaves the array ordered best first
+        for (int end = size - 1; end >= 0; end--) {
+            answer[end] = ids[0];
+            swap(0, end);
+            siftDown(0, end);
+        }
+        size = 0;
+        return answer;
+    }
+
+    /**
+     * Selects the k best pairs from parallel score and id arrays, reordering the arrays in place.
+     *
+     * @param scores The score of each pair
+     * @param ids    The id of each pair
+     * @param length The number of pairs in use at the front of the arrays
+     * @param k      The number of pairs to select
+     * @return The ids of the min(k, length) best pairs, best first
+     */
+    public static int[] select(int[] scores, int[] ids, int length, int k) {
+        k = Math.max(0, Math.min(k, length));
+        if (k == 0) {
+            return new int[0];
+        }
+        int low = 0;
+        int high = length - 1;
+        //partial quickselect: only the side of each partition that contains position k - 1 is processed further
+        while (low < high) {
+            int pivot = partition(scores, ids, low, high);
+            if (pivot == k - 1) {
+                break;
+            } else if (pivot < k - 1) {
+                low = pivot + 1;
+            } else {
+                high = pivot - 1;
+            }
+        }
+
+        TopK heap = new TopK(k);
+        for (int i = 0; i < k; i++) {
+            heap.offer(scores[i], ids[i]);
+        }
+        return heap.toSortedIds();
+    }
+
+    //Lomuto partition around a median-of-three pivot, placing better pairs to the left; returns the pivot's final index
+    private static int partition(int[] scores, int[] ids, int low, int high) {
+        int mid = (low + high) >>> 1;
+        if (better(scores[mid], ids[mid], scores[low], ids[low])) {
+            swap(scores, ids, mid, low);
+        }
+        if (better(scores[high], ids[high], scores[low], ids[low])) {
+            swap(scores, ids, high, low);
+        }
+        if (better(scores[high], ids[high], scores[mid], ids[mid])) {
+            swap(scores, ids, high, mid);
+        }
+        swap(scores, ids, mid, high);
+
+        int pivotScore = scores[high];
+        int pivotId = ids[high];
+        int store = low;
+        for (int i = low; i < high; i++) {
+            if (better(scores[i], ids[i], pivotScore, pivotId)) {
+                swap(scores, ids, i, store);
+                store++;
+            }
+        }
+        swap(scores, ids, store, high);
+        return store;
+    }
+
+    private static void swap(int[] scores, int[] ids, int i, int j) {
+        int score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+    }
+
+}
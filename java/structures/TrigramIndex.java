@@ -0,0 +1,170 @@
+package structures;
+
+/*
+ * An inverted index from the three character substrings (trigrams) of names to the ids whose names hold them, for finding
+ * every name that contains a search term without reading every name. A name that contains the term also contains each
+ * of the term's trigrams, so the ids posted under the term's rarest trigram are a complete set of candidates, and only
+ * their names are checked with String.contains. Each trigram is packed into a long, and a LongIntHashMap maps it to its
+ * slot in an array of postings lists. A term shorter than three characters has no trigram, so every name is checked,
+ * which is still one check per id rather than one per credit. Matching is case sensitive, as String.contains is.
+ *
+ * Loading only ever appends to the postings lists, and each list records whether the appends have left it out of order.
+ * A removal sorts a list that is out of order once, then finds the id by binary search, so the common trigrams whose
+ * lists hold a large share of everyone are not scanned one id at a time. A trigram whose list empties is dropped from
+ * the map, and its slot is reused by the next new trigram, so churn does not grow the index.
+ */
+public class TrigramIndex {
+
+    private IntObjectHashMap<String> names;
+    private LongIntHashMap slots;
+    private IntList[] postings;
+    private boolean[] unsorted;
+    private int slotCount;
+    private IntList freeSlots;
+
+    public TrigramIndex(int expectedSize) {
+        names = new IntObjectHashMap<>(expectedSize);
+        slots = new LongIntHashMap(expectedSize);
+        postings = new IntList[Math.max(expectedSize, 16)];
+        unsorted = new boolean[postings.length];
+        slotCount = 0;
+        freeSlots = new IntList();
+    }
+
+    public TrigramIndex() {
+        this(16);
+    }
+
+    //the number of ids
+    public int size() {
+        return names.size();
+    }
+
+    public boolean contains(int id) {
+        return names.containsKey(id);
+    }
+
+    //the three chars of s starting at i, 16 bits each
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    //adds id under every trigram of name; returns false if id is already indexed
+    public boolean add(int id, String name) {
+        if (name == null) {
+            name = "";
+        }
+        if (!names.put(id, name)) {
+            return false;
+        }
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            long key = trigram(name, i);
+            int slot = slots.get(key);
+            if (slot == -1) {
+                slot = newSlot();
+                slots.put(key, slot);
+            }
+            //nothing else is posted while one name is added, so a trigram repeated in the name shows up as id at the end
+            IntList ids = postings[slot];
+            if (ids.isEmpty() || ids.get(ids.size() - 1) != id) {
+                if (!ids.isEmpty() && ids.get(ids.size() - 1) > id) {
+                    unsorted[slot] = true;
+                }
+                ids.add(id);
+            }
+        }
+        return true;
+    }
+
+    //an empty postings list in a free slot if there is one, otherwise in a new slot at the end
+    private int newSlot() {
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.removeAt(freeSlots.size() - 1);
+        } else {
+            if (slotCount == postings.length) {
+                IntList[] tmp = new IntList[postings.length * 2];
+                boolean[] tmpUnsorted = new boolean[unsorted.length * 2];
+                System.arraycopy(postings, 0, tmp, 0, slotCount);
+                System.arraycopy(unsorted, 0, tmpUnsorted, 0, slotCount);
+                postings = tmp;
+                unsorted = tmpUnsorted;
+            }
+            slot = slotCount;
+            slotCount++;
+        }
+        postings[slot] = new IntList(4);
+        unsorted[slot] = false;
+        return slot;
+    }
+
+    //removes id from every trigram of its name; returns false if id is not indexed
+    public boolean remove(int id) {
+        String name = names.get(id);
+        if (name == null) {
+            return false;
+        }
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            long key = trigram(name, i);
+            int slot = slots.get(key);
+            if (slot == -1) {
+                //a trigram repeated in the name, whose list has already emptied
+                continue;
+            }
+            IntList ids = postings[slot];
+            if (unsorted[slot]) {
+                ids.sort();
+                unsorted[slot] = false;
+            }
+            //a repeated trigram finds id already gone, which removeSorted() simply reports
+            ids.removeSorted(id);
+            if (ids.isEmpty()) {
+                slots.remove(key);
+                postings[slot] = null;
+                freeSlots.add(slot);
+            }
+        }
+        return names.remove(id);
+    }
+
+    /**
+     * Finds every id whose name contains a search term.
+     *
+     * @param term The string to look for
+     * @return The ids of every name containing term, in no particular order; an empty array if there are none
+     */
+    public int[] find(String term) {
+        IntList answer = new IntList();
+        if (term == null) {
+            return answer.toArray();
+        }
+        if (term.length() < 3) {
+            for (int id : names.getKeys()) {
+                if (names.get(id).contains(term)) {
+                    answer.add(id);
+                }
+            }
+            return answer.toArray();
+        }
+
+        IntList candidates = null;
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            int slot = slots.get(trigram(term, i));
+            if (slot == -1) {
+                //no name holds this trigram, so no name holds the term
+                return answer.toArray();
+            }
+            if (candidates == null || postings[slot].size() < candidates.size()) {
+                candidates = postings[slot];
+            }
+        }
+        for (int c = 0; c < candidates.size(); c++) {
+            int id = candidates.get(c);
+            if (names.get(id).contains(term)) {
+                answer.add(id);
+            }
+        }
+        return answer.toArray();
+    }
+
+}
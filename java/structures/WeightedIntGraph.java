@@ -0,0 +1,190 @@
+package structures;
+
+/*
+ * An undirected graph over int ids whose edges carry a positive integer weight, kept as a hash map from each node to a
+ * map of its neighbours and weights. Unlike CsrGraph it can be changed one edge at a time: adding an edge that already
+ * exists raises its weight by one and removing it lowers the weight, dropping the edge when the weight reaches zero,
+ * so the weight can count something like the number of films two cast members share.
+ *
+ * Each node's degree and the weight of its heaviest edge are kept on CountLeaderboards. Both only ever move by one per
+ * edge change, which is exactly the update a leaderboard makes in O(1), and the leaderboards answer "every node with a
+ * degree of at least d" or "every node with an edge of weight at least k" in time proportional to the answer, rather
+ * than by scanning every cell as AdjacencyMatrix.findNodesWithMultipleConnections does.
+ */
+public class WeightedIntGraph {
+
+    private IntObjectHashMap<IntIntHashMap> adjacency;
+    private int edgeCount;
+
+    //nodes by degree and by heaviest edge weight, plus how many edges of each node are at that heaviest weight
+    private CountLeaderboard degrees;
+    private CountLeaderboard maxWeights;
+    private IntIntHashMap atMaxWeight;
+
+    public WeightedIntGraph(int expectedNodes) {
+        adjacency = new IntObjectHashMap<>(expectedNodes);
+        edgeCount = 0;
+        degrees = new CountLeaderboard(expectedNodes);
+        maxWeights = new CountLeaderboard(expectedNodes);
+        atMaxWeight = new IntIntHashMap(expectedNodes);
+    }
+
+    public WeightedIntGraph() {
+        this(16);
+    }
+
+    //the number of nodes
+    public int size() {
+        return adjacency.size();
+    }
+
+    //the number of undirected edges
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    public boolean containsNode(int id) {
+        return adjacency.containsKey(id);
+    }
+
+    //adds a node with no edges; returns false if it is already in the graph
+    public boolean addNode(int id) {
+        if (adjacency.containsKey(id)) {
+            return false;
+        }
+        return adjacency.put(id, new IntIntHashMap(4));
+    }
+
+    //removes a node along with every edge touching it
+    public boolean removeNode(int id) {
+        IntIntHashMap neighbors = adjacency.get(id);
+        if (neighbors == null) {
+            return false;
+        }
+        //one step at a time, so the degree and heaviest weight counters follow every change
+        for (int neighbor : neighbors.getKeys()) {
+            while (removeEdge(id, neighbor) > 0) {
+            }
+        }
+        return adjacency.remove(id);
+    }
+
+    private IntIntHashMap neighborMap(int id) {
+        IntIntHashMap neighbors = adjacency.get(id);
+        if (neighbors == null) {
+            neighbors = new IntIntHashMap(4);
+            adjacency.put(id, neighbors);
+        }
+        return neighbors;
+    }
+
+    //raises the weight of the edge between a and b by one, adding the nodes and edge as needed; returns the new weight
+    public int addEdge(int a, int b) {
+        if (a == b) {
+            return 0;
+        }
+        int weight = neighborMap(a).increment(b, 1);
+        neighborMap(b).increment(a, 1);
+        if (weight == 1) {
+            edgeCount++;
+            degrees.increment(a);
+            degrees.increment(b);
+        }
+        raised(a, weight);
+        raised(b, weight);
+        return weight;
+    }
+
+    //lowers the weight of the edge between a and b by one, removing it at zero; returns the new weight, or -1 if absent
+    public int removeEdge(int a, int b) {
+        IntIntHashMap fromA = adjacency.get(a);
+        if (fromA == null || !fromA.containsKey(b)) {
+            return -1;
+        }
+        IntIntHashMap fromB = adjacency.get(b);
+        int weight = fromA.increment(b, -1);
+        fromB.increment(a, -1);
+        if (weight == 0) {
+            fromA.remove(b);
+            fromB.remove(a);
+            edgeCount--;
+            degrees.decrement(a);
+            degrees.decrement(b);
+        }
+        lowered(a, weight);
+        lowered(b, weight);
+        return weight;
+    }
+
+    //one of node's edges has just gone up to weight
+    private void raised(int node, int weight) {
+        int max = maxWeights.countOf(node);
+        if (weight > max) {
+            maxWeights.increment(node);
+            if (max == 0) {
+                atMaxWeight.put(node, 1);
+            } else {
+                atMaxWeight.replace(node, 1);
+            }
+        } else if (weight == max) {
+            atMaxWeight.increment(node, 1);
+        }
+    }
+
+    //one of node's edges has just gone down to weight
+    private void lowered(int node, int weight) {
+        if (weight + 1 != maxWeights.countOf(node) || atMaxWeight.increment(node, -1) > 0) {
+            return;
+        }
+        //that was the last edge at the heaviest weight, and it is now one lighter, so the heaviest weight is too
+        maxWeights.decrement(node);
+        if (weight == 0) {
+            atMaxWeight.remove(node);
+            return;
+        }
+        int count = 0;
+        IntIntHashMap neighbors = adjacency.get(node);
+        for (int neighbor : neighbors.getKeys()) {
+            if (neighbors.get(neighbor) == weight) {
+                count++;
+            }
+        }
+        atMaxWeight.replace(node, count);
+    }
+
+    //returns the weight of the edge between a and b, or 0 if there is none
+    public int weight(int a, int b) {
+        IntIntHashMap neighbors = adjacency.get(a);
+        return neighbors == null ? 0 : neighbors.getOrDefault(b, 0);
+    }
+
+    public int degree(int id) {
+        IntIntHashMap neighbors = adjacency.get(id);
+        return neighbors == null ? 0 : neighbors.size();
+    }
+
+    public int[] neighborsOf(int id) {
+        IntIntHashMap neighbors = adjacency.get(id);
+        return neighbors == null ? new int[0] : neighbors.getKeys();
+    }
+
+    public int[] getNodes() {
+        return adjacency.getKeys();
+    }
+
+    //returns the weight of the heaviest edge of id, or 0 if it has none
+    public int maxWeight(int id) {
+        return maxWeights.countOf(id);
+    }
+
+    //returns every node with at least one edge of weight min or more; min should be at least 1
+    public int[] nodesWithWeightAtLeast(int min) {
+        return maxWeights.atLeast(min);
+    }
+
+    //returns every node with at least min neighbours; min should be at least 1
+    public int[] nodesWithDegreeAtLeast(int min) {
+        return degrees.atLeast(min);
+    }
+
+}
@@ -7,12 +7,8 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.Instant;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.util.Calendar;
-import java.util.Date;
 
 import javax.swing.JLabel;
 import javax.swing.JProgressBar;
@@ -28,6 +24,7 @@ import stores.Cast;
 import stores.Company;
 import stores.Credits;
 import stores.Crew;
+import stores.EpochTime;
 import stores.Genre;
 import stores.Keyword;
 import stores.Keywords;
@@ -483,14 +480,12 @@ public class LoadData implements Runnable {
 
                 // Parse Release Date
                 String release_in_file = csvRecord.get("release_date");
-                Calendar release;
+                int release;
                 if (!release_in_file.equals("")){
-                    LocalDate date = LocalDate.parse(csvRecord.get("release_date"));
-                    release = Calendar.getInstance(); 
-                    release.set(date.getYear(), date.getMonthValue(), date.getDayOfMonth());
+                    release = (int) LocalDate.parse(release_in_file).toEpochDay();
                 }
                 else{
-                    release = null;
+                    release = EpochTime.NO_DATE;
                 }
 
                 // Parse Budget
@@ -814,14 +809,10 @@ public class LoadData implements Runnable {
                 int movieId  = Integer.parseInt(csvRecord.get("movieId"));
                 float rating = Float.parseFloat(csvRecord.get("rating"));
 
+                //the file holds epoch seconds, which is exactly what the store keeps, so no date objects are needed
                 long ts_in_file = Long.parseLong(csvRecord.get("timestamp"));
-                LocalDateTime time = LocalDateTime.ofEpochSecond(ts_in_file, 0 , ZoneOffset.UTC);
-                Instant instant = time.atZone(ZoneOffset.UTC).toInstant();
-                Date date = Date.from(instant);
-                Calendar cal = Calendar.getInstance();
-                cal.setTime(date);
 
-                ratings.add(userId, movieId, rating, cal);
+                ratings.add(userId, movieId, rating, ts_in_file);
 
                 currentNumber++;
                 record_count++;